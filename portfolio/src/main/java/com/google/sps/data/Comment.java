@@ -25,5 +25,16 @@ public class Comment {
     this.content = content;
     this.time = time;
   }
-  
+
+  public String getName() {
+    return name;
+  }
+
+  public String getContent() {
+    return content;
+  }
+
+  public long getTime() {
+    return time;
+  }
 }
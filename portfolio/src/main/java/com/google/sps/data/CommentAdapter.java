@@ -0,0 +1,74 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.data;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
+
+/**
+ * Converts a {@code Comment} to and from JSON without reflection. The JSON has the same shape
+ * that Gson's reflective adapter produces.
+ */
+public final class CommentAdapter extends TypeAdapter<Comment> {
+  @Override
+  public void write(JsonWriter out, Comment comment) throws IOException {
+    if (comment == null) {
+      out.nullValue();
+      return;
+    }
+    out.beginObject();
+    out.name("name").value(comment.getName());
+    out.name("content").value(comment.getContent());
+    out.name("time").value(comment.getTime());
+    out.endObject();
+  }
+
+  @Override
+  public Comment read(JsonReader in) throws IOException {
+    if (in.peek() == JsonToken.NULL) {
+      in.nextNull();
+      return null;
+    }
+    String name = null;
+    String content = null;
+    long time = 0;
+    in.beginObject();
+    while (in.hasNext()) {
+      String field = in.nextName();
+      if (in.peek() == JsonToken.NULL) {
+        in.nextNull();
+        continue;
+      }
+      switch (field) {
+        case "name":
+          name = in.nextString();
+          break;
+        case "content":
+          content = in.nextString();
+          break;
+        case "time":
+          time = in.nextLong();
+          break;
+        default:
+          in.skipValue();
+      }
+    }
+    in.endObject();
+    return new Comment(name, content, time);
+  }
+}
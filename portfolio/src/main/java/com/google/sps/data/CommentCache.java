@@ -0,0 +1,179 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.data;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
+
+/**
+ * Holds the newest page of comments in memory, both as {@code Comment} objects and as the JSON
+ * bytes sent to the browser, so most reads of the comment feed never reach the database.
+ *
+ * <p>The cache is read-through: callers {@code get} the snapshot and, if there is none, load it
+ * themselves and {@code install} it. Every write on this instance must call {@code invalidate}.
+ * Each snapshot remembers the generation it was loaded in, so a load which raced with a write is
+ * never served.
+ *
+ * <p>Other instances of the app write comments too, so a snapshot is only trusted for
+ * {@code MAX_AGE_MILLIS}. Once it has expired, callers check the newest comment time in the
+ * repository and {@code renew} the snapshot if it still ends at that comment.
+ */
+public final class CommentCache {
+  static final long MAX_AGE_MILLIS = 5000;
+
+  private final AtomicLong generation = new AtomicLong();
+  private final AtomicReference<Snapshot> current = new AtomicReference<>();
+  private final LongSupplier clock;
+
+  public CommentCache() {
+    this(System::currentTimeMillis);
+  }
+
+  CommentCache(LongSupplier clock) {
+    this.clock = clock;
+  }
+
+  /** Returns the cached snapshot if it is younger than {@code MAX_AGE_MILLIS}, or null. */
+  public Snapshot get() {
+    Snapshot snapshot = getExpired();
+    if (snapshot == null || clock.getAsLong() - snapshot.loadedAt >= MAX_AGE_MILLIS) {
+      return null;
+    }
+    return snapshot;
+  }
+
+  /**
+   * Returns the cached snapshot even if it has expired, or null if there is none. Pass it to
+   * {@code renew} to keep serving it.
+   */
+  public Snapshot getExpired() {
+    Snapshot snapshot = current.get();
+    if (snapshot == null || snapshot.generation != generation.get()) {
+      return null;
+    }
+    return snapshot;
+  }
+
+  /**
+   * Trusts an expired snapshot for another {@code MAX_AGE_MILLIS} if it still ends at the newest
+   * comment. Returns the renewed snapshot, or null if it must be loaded again.
+   *
+   * @param newestTime The time of the newest comment in the repository, as returned by
+   *     {@code CommentRepository.getNewestTime}.
+   */
+  public Snapshot renew(Snapshot expired, long newestTime) {
+    if (expired.getNewestTime() != newestTime) {
+      return null;
+    }
+    Snapshot renewed = new Snapshot(expired, clock.getAsLong());
+    if (!current.compareAndSet(expired, renewed)) {
+      // Another request renewed or replaced it first.
+      return get();
+    }
+    return clearIfStale(renewed) ? null : renewed;
+  }
+
+  /** Returns the generation to pass to {@code install}; read it before starting a load. */
+  public long generation() {
+    return generation.get();
+  }
+
+  /**
+   * Caches a snapshot loaded from the database, unless a write happened since 'generation' was
+   * read. Returns the snapshot either way, so the caller can serve it.
+   */
+  public Snapshot install(long generation, List<Comment> comments, byte[] json,
+      byte[] gzippedJson) {
+    Snapshot snapshot =
+        new Snapshot(generation, clock.getAsLong(), comments, json, gzippedJson);
+    Snapshot existing;
+    do {
+      existing = current.get();
+      if (this.generation.get() != generation) {
+        // A write happened since the load started, so the snapshot may already be stale.
+        return snapshot;
+      }
+    } while (!current.compareAndSet(existing, snapshot));
+    clearIfStale(snapshot);
+    return snapshot;
+  }
+
+  /** Drops the cached snapshot. Call this after every write to the database. */
+  public void invalidate() {
+    generation.incrementAndGet();
+    current.set(null);
+  }
+
+  /**
+   * Clears 'swapped', which was just put in the cache, if a write happened between the generation
+   * check and the swap, since that write cleared the cache before the swap refilled it.
+   */
+  private boolean clearIfStale(Snapshot swapped) {
+    if (generation.get() != swapped.generation) {
+      current.compareAndSet(swapped, null);
+      return true;
+    }
+    return false;
+  }
+
+  /** An immutable page of comments and its JSON representation, plain and gzipped. */
+  public static final class Snapshot {
+    private final long generation;
+    private final long loadedAt;
+    private final List<Comment> comments;
+    private final byte[] json;
+    private final byte[] gzippedJson;
+
+    private Snapshot(long generation, long loadedAt, List<Comment> comments, byte[] json,
+        byte[] gzippedJson) {
+      this.generation = generation;
+      this.loadedAt = loadedAt;
+      this.comments = Collections.unmodifiableList(new ArrayList<>(comments));
+      this.json = json;
+      this.gzippedJson = gzippedJson;
+    }
+
+    private Snapshot(Snapshot expired, long loadedAt) {
+      this.generation = expired.generation;
+      this.loadedAt = loadedAt;
+      this.comments = expired.comments;
+      this.json = expired.json;
+      this.gzippedJson = expired.gzippedJson;
+    }
+
+    public List<Comment> getComments() {
+      return comments;
+    }
+
+    /** Returns the time of the newest comment, or 0 if there are no comments. */
+    public long getNewestTime() {
+      return comments.isEmpty() ? 0 : comments.get(0).getTime();
+    }
+
+    /** Returns the UTF-8 JSON bytes of the page. The array must not be modified. */
+    public byte[] getJson() {
+      return json;
+    }
+
+    /** Returns the JSON bytes of the page compressed with gzip. The array must not be modified. */
+    public byte[] getGzippedJson() {
+      return gzippedJson;
+    }
+  }
+}
@@ -0,0 +1,56 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.data;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Stores user comments. Servlets only talk to this interface, so comments can be kept in
+ * Datastore, in memory or in a local log file without changing them.
+ */
+public interface CommentRepository {
+
+  /** Stores a comment. */
+  void add(Comment comment);
+
+  /** Stores several comments, in one round trip where the storage supports it. */
+  void addAll(List<Comment> comments);
+
+  /**
+   * Passes up to 'limit' comments, newest first, to 'visitor' as they are read.
+   *
+   * @param cursor Where to start, as returned by the previous call, or null to start from the
+   *     newest comment.
+   * @return The cursor of the next page, or null if the oldest comment has been visited.
+   * @throws IllegalArgumentException If the cursor is not one returned by this repository.
+   */
+  String visitNewest(int limit, String cursor, Visitor<Comment> visitor) throws IOException;
+
+  /**
+   * Returns the time of the newest comment, or 0 if there are none. This is much cheaper than
+   * reading a page, and it sees comments written by every instance of the app.
+   */
+  long getNewestTime() throws IOException;
+
+  /**
+   * Returns up to 'limit' comments which contain any of the words in 'query', best match first.
+   * A comment is searchable as soon as {@code add} returns.
+   */
+  List<Comment> search(String query, int limit) throws IOException;
+
+  /** Returns whether 'cursor' could have been returned by {@code visitNewest}. */
+  boolean isValidCursor(String cursor);
+}
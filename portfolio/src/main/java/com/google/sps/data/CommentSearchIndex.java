@@ -0,0 +1,227 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.data;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * An inverted index over the words in each comment's content and name, so comments can be
+ * searched by keyword without reading every comment. Repositories keep one for the comments they
+ * hold in memory, or build one over the candidates their storage matched to rank them.
+ *
+ * <p>Each comment gets the next document id as it is added, so the ids in a posting list only ever
+ * grow. A posting list stores each (gap from the previous id, weight) pair as two varints, so a
+ * small gap or weight takes a single byte. Matches are ranked by the sum of weight times inverse
+ * document frequency of each query word, and then by newest first.
+ */
+public final class CommentSearchIndex {
+  // A word in the commenter's name counts as much as this many words in the content.
+  private static final int NAME_WEIGHT = 2;
+  private static final int CONTENT_WEIGHT = 1;
+
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  private final List<Comment> documents = new ArrayList<>();
+  private final Map<String, PostingList> postings = new HashMap<>();
+
+  /** Adds 'comment' to the index. */
+  public void add(Comment comment) {
+    Map<String, Integer> weights = weights(comment);
+
+    lock.writeLock().lock();
+    try {
+      int id = documents.size();
+      documents.add(comment);
+      for (Map.Entry<String, Integer> entry : weights.entrySet()) {
+        postings.computeIfAbsent(entry.getKey(), word -> new PostingList())
+            .add(id, entry.getValue());
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /** Returns the number of comments in the index. */
+  public int size() {
+    lock.readLock().lock();
+    try {
+      return documents.size();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Returns up to 'limit' comments which contain any of the words in 'query', best match first.
+   */
+  public List<Comment> search(String query, int limit) {
+    Set<String> words = tokenize(query);
+    Map<Integer, Double> scores = new HashMap<>();
+    List<Comment> matches = new ArrayList<>();
+
+    lock.readLock().lock();
+    try {
+      int documentCount = documents.size();
+      for (String word : words) {
+        PostingList list = postings.get(word);
+        if (list == null) {
+          continue;
+        }
+        double idf = idf(documentCount, list.documentCount);
+        list.forEach((id, weight) -> scores.merge(id, weight * idf, Double::sum));
+      }
+
+      Comparator<Map.Entry<Integer, Double>> byRank =
+          Comparator.<Map.Entry<Integer, Double>>comparingDouble(Map.Entry::getValue)
+              .thenComparingLong(entry -> documents.get(entry.getKey()).getTime());
+      // Keep the best 'limit' matches in a heap whose head is the worst of them.
+      PriorityQueue<Map.Entry<Integer, Double>> best = new PriorityQueue<>(byRank);
+      for (Map.Entry<Integer, Double> entry : scores.entrySet()) {
+        best.add(entry);
+        if (best.size() > limit) {
+          best.poll();
+        }
+      }
+      while (!best.isEmpty()) {
+        matches.add(documents.get(best.poll().getKey()));
+      }
+    } finally {
+      lock.readLock().unlock();
+    }
+
+    // The heap gave the matches worst first.
+    Collections.reverse(matches);
+    return matches;
+  }
+
+  /**
+   * Returns how much each word of a comment counts towards its score. A word in the commenter's
+   * name counts more than a word in the content.
+   */
+  static Map<String, Integer> weights(Comment comment) {
+    Map<String, Integer> weights = new HashMap<>();
+    for (String word : tokenize(comment.getName())) {
+      weights.merge(word, NAME_WEIGHT, Integer::sum);
+    }
+    for (String word : tokenize(comment.getContent())) {
+      weights.merge(word, CONTENT_WEIGHT, Integer::sum);
+    }
+    return weights;
+  }
+
+  /**
+   * Returns the inverse document frequency of a word which is in 'matchCount' of 'documentCount'
+   * comments. Rare words say more about a comment than words which are in most of them.
+   */
+  static double idf(long documentCount, long matchCount) {
+    return Math.log(1 + (double) documentCount / matchCount);
+  }
+
+  /** Returns the distinct words of a comment's name and content, as matched by a search. */
+  static Set<String> keywords(Comment comment) {
+    Set<String> words = tokenize(comment.getName());
+    words.addAll(tokenize(comment.getContent()));
+    return words;
+  }
+
+  /** Splits 'text' into its distinct lower-case words, ignoring punctuation. */
+  static Set<String> tokenize(String text) {
+    Set<String> words = new LinkedHashSet<>();
+    if (text == null) {
+      return words;
+    }
+    int start = -1;
+    for (int i = 0; i <= text.length(); i++) {
+      boolean inWord = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+      if (inWord && start < 0) {
+        start = i;
+      } else if (!inWord && start >= 0) {
+        words.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+        start = -1;
+      }
+    }
+    return words;
+  }
+
+  /** Receives the entries of a posting list. */
+  private interface PostingVisitor {
+    void visit(int id, int weight);
+  }
+
+  /**
+   * The documents containing one word, as (gap from the previous id, weight) pairs. Both numbers
+   * are stored as varints: seven bits per byte, low bits first, with the top bit set on every byte
+   * but the last.
+   */
+  private static final class PostingList {
+    private byte[] entries = new byte[8];
+    private int size = 0;
+    private int lastId = 0;
+    private int documentCount = 0;
+
+    void add(int id, int weight) {
+      // Two varints of a non-negative int take at most ten bytes.
+      if (size + 10 > entries.length) {
+        entries = Arrays.copyOf(entries, Math.max(entries.length * 2, size + 10));
+      }
+      writeVarint(id - lastId);
+      writeVarint(weight);
+      lastId = id;
+      documentCount++;
+    }
+
+    /** Passes every (id, weight) pair to 'visitor', in increasing order of id. */
+    void forEach(PostingVisitor visitor) {
+      int id = 0;
+      int value = 0;
+      int shift = 0;
+      boolean isGap = true;
+      for (int i = 0; i < size; i++) {
+        value |= (entries[i] & 0x7f) << shift;
+        shift += 7;
+        if ((entries[i] & 0x80) == 0) {
+          // The last byte of a number; the numbers alternate between gap and weight.
+          if (isGap) {
+            id += value;
+          } else {
+            visitor.visit(id, value);
+          }
+          isGap = !isGap;
+          value = 0;
+          shift = 0;
+        }
+      }
+    }
+
+    private void writeVarint(int value) {
+      while ((value & ~0x7f) != 0) {
+        entries[size++] = (byte) ((value & 0x7f) | 0x80);
+        value >>>= 7;
+      }
+      entries[size++] = (byte) value;
+    }
+  }
+}
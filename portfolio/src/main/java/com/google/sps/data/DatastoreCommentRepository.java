@@ -0,0 +1,230 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.data;
+
+import com.google.appengine.api.datastore.Cursor;
+import com.google.appengine.api.datastore.DatastoreService;
+import com.google.appengine.api.datastore.Entity;
+import com.google.appengine.api.datastore.FetchOptions;
+import com.google.appengine.api.datastore.Key;
+import com.google.appengine.api.datastore.PreparedQuery;
+import com.google.appengine.api.datastore.PropertyProjection;
+import com.google.appengine.api.datastore.Query;
+import com.google.appengine.api.datastore.Query.FilterOperator;
+import com.google.appengine.api.datastore.Query.FilterPredicate;
+import com.google.appengine.api.datastore.Query.SortDirection;
+import com.google.appengine.api.datastore.QueryResultIterator;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Stores comments as "Comment" entities in Datastore. Each entity lists the words of its name and
+ * content in an indexed "keywords" property, so a search queries Datastore's index of that
+ * property instead of reading every comment. Comments stored before the property existed get it
+ * from {@code backfillKeywords}.
+ */
+public final class DatastoreCommentRepository implements CommentRepository {
+  // Bounds the queries a single search makes.
+  private static final int MAX_SEARCH_WORDS = 8;
+  // How many matches a search reads from Datastore per round trip.
+  private static final int SEARCH_CHUNK_SIZE = 500;
+
+  private final DatastoreService datastore;
+
+  public DatastoreCommentRepository(DatastoreService datastore) {
+    this.datastore = datastore;
+  }
+
+  @Override
+  public void add(Comment comment) {
+    datastore.put(toEntity(comment));
+  }
+
+  @Override
+  public void addAll(List<Comment> comments) {
+    List<Entity> entities = new ArrayList<>(comments.size());
+    for (Comment comment : comments) {
+      entities.add(toEntity(comment));
+    }
+    datastore.put(entities);
+  }
+
+  @Override
+  public String visitNewest(int limit, String cursor, Visitor<Comment> visitor)
+      throws IOException {
+    FetchOptions options = FetchOptions.Builder.withLimit(limit);
+    if (cursor != null) {
+      options.startCursor(Cursor.fromWebSafeString(cursor));
+    }
+    Query query = new Query("Comment").addSort("time", SortDirection.DESCENDING);
+    PreparedQuery results = datastore.prepare(query);
+    QueryResultIterator<Entity> entities = results.asQueryResultIterator(options);
+
+    int count = 0;
+    while (entities.hasNext()) {
+      visitor.visit(toComment(entities.next()));
+      count++;
+    }
+    // A short page means we reached the oldest comment, so there is nothing left to fetch.
+    return count == limit ? entities.getCursor().toWebSafeString() : null;
+  }
+
+  @Override
+  public long getNewestTime() {
+    // Datastore answers a projection on an indexed property from the index alone.
+    Query query = new Query("Comment")
+        .addProjection(new PropertyProjection("time", Long.class))
+        .addSort("time", SortDirection.DESCENDING);
+    List<Entity> newest =
+        datastore.prepare(query).asList(FetchOptions.Builder.withLimit(1));
+    return newest.isEmpty() ? 0 : (long) newest.get(0).getProperty("time");
+  }
+
+  /**
+   * Reads every comment containing each query word and ranks them as {@code CommentSearchIndex}
+   * does. Only the score and time of each match are kept while the matches are read, and the best
+   * 'limit' comments are then fetched by key.
+   */
+  @Override
+  public List<Comment> search(String query, int limit) {
+    // The weight of each query word in each comment which contains it.
+    Map<String, Map<Key, Integer>> matches = new HashMap<>();
+    Map<Key, Long> times = new HashMap<>();
+    for (String word : CommentSearchIndex.tokenize(query)) {
+      if (matches.size() == MAX_SEARCH_WORDS) {
+        break;
+      }
+      Map<Key, Integer> weights = new HashMap<>();
+      Query wordQuery = new Query("Comment")
+          .setFilter(new FilterPredicate("keywords", FilterOperator.EQUAL, word));
+      for (Entity entity : datastore.prepare(wordQuery)
+          .asIterable(FetchOptions.Builder.withChunkSize(SEARCH_CHUNK_SIZE))) {
+        Comment comment = toComment(entity);
+        weights.put(entity.getKey(), CommentSearchIndex.weights(comment).getOrDefault(word, 0));
+        times.put(entity.getKey(), comment.getTime());
+      }
+      matches.put(word, weights);
+    }
+
+    // The statistics lag behind, so never count fewer comments than were just matched.
+    long documentCount = Math.max(countComments(), times.size());
+    Map<Key, Double> scores = new HashMap<>();
+    for (Map<Key, Integer> weights : matches.values()) {
+      double idf = CommentSearchIndex.idf(documentCount, weights.size());
+      weights.forEach((key, weight) -> scores.merge(key, weight * idf, Double::sum));
+    }
+
+    // Keep the best 'limit' matches in a heap whose head is the worst of them.
+    Comparator<Key> byRank = Comparator.<Key>comparingDouble(scores::get)
+        .thenComparingLong(times::get);
+    PriorityQueue<Key> best = new PriorityQueue<>(byRank);
+    for (Key key : scores.keySet()) {
+      best.add(key);
+      if (best.size() > limit) {
+        best.poll();
+      }
+    }
+    List<Key> ranked = new ArrayList<>(best.size());
+    while (!best.isEmpty()) {
+      ranked.add(best.poll());
+    }
+    Collections.reverse(ranked);
+
+    Map<Key, Entity> entities = datastore.get(ranked);
+    List<Comment> comments = new ArrayList<>(ranked.size());
+    for (Key key : ranked) {
+      Entity entity = entities.get(key);
+      // Skip a comment deleted since it matched.
+      if (entity != null) {
+        comments.add(toComment(entity));
+      }
+    }
+    return comments;
+  }
+
+  /**
+   * Adds the "keywords" property to the comments stored before it existed, checking up to
+   * 'batchSize' comments from 'cursor'. Returns the cursor to continue from, or null once every
+   * comment has been checked.
+   */
+  public String backfillKeywords(String cursor, int batchSize) {
+    FetchOptions options = FetchOptions.Builder.withLimit(batchSize);
+    if (cursor != null) {
+      options.startCursor(Cursor.fromWebSafeString(cursor));
+    }
+    QueryResultIterator<Entity> entities =
+        datastore.prepare(new Query("Comment")).asQueryResultIterator(options);
+
+    List<Entity> updated = new ArrayList<>();
+    int count = 0;
+    while (entities.hasNext()) {
+      Entity entity = entities.next();
+      count++;
+      if (!entity.hasProperty("keywords")) {
+        entity.setProperty("keywords", keywords(toComment(entity)));
+        updated.add(entity);
+      }
+    }
+    if (!updated.isEmpty()) {
+      datastore.put(updated);
+    }
+    return count == batchSize ? entities.getCursor().toWebSafeString() : null;
+  }
+
+  /**
+   * Returns the number of comments from Datastore's statistics, which are updated about once a
+   * day, or 0 if there are none yet.
+   */
+  private long countComments() {
+    Query query = new Query("__Stat_Kind__")
+        .setFilter(new FilterPredicate("kind_name", FilterOperator.EQUAL, "Comment"));
+    Entity statistics = datastore.prepare(query).asSingleEntity();
+    return statistics == null ? 0 : (long) statistics.getProperty("count");
+  }
+
+  @Override
+  public boolean isValidCursor(String cursor) {
+    try {
+      Cursor.fromWebSafeString(cursor);
+      return true;
+    } catch (IllegalArgumentException e) {
+      return false;
+    }
+  }
+
+  private static Entity toEntity(Comment comment) {
+    Entity entity = new Entity("Comment");
+    entity.setProperty("name", comment.getName());
+    entity.setProperty("content", comment.getContent());
+    entity.setProperty("time", comment.getTime());
+    entity.setProperty("keywords", keywords(comment));
+    return entity;
+  }
+
+  private static List<String> keywords(Comment comment) {
+    return new ArrayList<>(CommentSearchIndex.keywords(comment));
+  }
+
+  private static Comment toComment(Entity entity) {
+    return new Comment((String) entity.getProperty("name"),
+        (String) entity.getProperty("content"), (long) entity.getProperty("time"));
+  }
+}
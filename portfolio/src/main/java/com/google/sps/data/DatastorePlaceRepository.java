@@ -0,0 +1,73 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.data;
+
+import com.google.appengine.api.datastore.DatastoreService;
+import com.google.appengine.api.datastore.Entity;
+import com.google.appengine.api.datastore.Query;
+import com.google.appengine.api.datastore.Query.FilterOperator;
+import com.google.appengine.api.datastore.Query.FilterPredicate;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Stores places as "Place" entities in Datastore. Once a place has been geocoded, its entity also
+ * has "name", "address", "lat" and "lng" properties.
+ */
+public final class DatastorePlaceRepository implements PlaceRepository {
+  private final DatastoreService datastore;
+
+  public DatastorePlaceRepository(DatastoreService datastore) {
+    this.datastore = datastore;
+  }
+
+  @Override
+  public void add(Place place) {
+    Entity entity = new Entity("Place");
+    entity.setProperty("query", place.getQuery());
+    entity.setProperty("comment", place.getComment());
+    datastore.put(entity);
+  }
+
+  @Override
+  public void setLocation(String query, Location location) {
+    Query sameQuery =
+        new Query("Place").setFilter(new FilterPredicate("query", FilterOperator.EQUAL, query));
+    List<Entity> entities = new ArrayList<>();
+    for (Entity entity : datastore.prepare(sameQuery).asIterable()) {
+      entity.setProperty("name", location.getName());
+      entity.setProperty("address", location.getAddress());
+      entity.setProperty("lat", location.getLat());
+      entity.setProperty("lng", location.getLng());
+      entities.add(entity);
+    }
+    datastore.put(entities);
+  }
+
+  @Override
+  public void visitAll(Visitor<Place> visitor) throws IOException {
+    for (Entity entity : datastore.prepare(new Query("Place")).asIterable()) {
+      Location location = null;
+      if (entity.hasProperty("lat")) {
+        location = new Location((String) entity.getProperty("name"),
+            (String) entity.getProperty("address"), (double) entity.getProperty("lat"),
+            (double) entity.getProperty("lng"));
+      }
+      visitor.visit(new Place((String) entity.getProperty("query"),
+          (String) entity.getProperty("comment"), location));
+    }
+  }
+}
@@ -0,0 +1,45 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.data;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A {@code Geocoder} which answers from a table filled in ahead of time, for tests and for running
+ * the app locally without an API key. Queries which are not in the table have no match.
+ */
+public final class FakeGeocoder implements Geocoder {
+  private final Map<String, Location> locations = new ConcurrentHashMap<>();
+  private final AtomicInteger lookups = new AtomicInteger();
+
+  /** Makes 'query' resolve to 'location'. */
+  public FakeGeocoder put(String query, Location location) {
+    locations.put(query, location);
+    return this;
+  }
+
+  @Override
+  public Location geocode(String query) {
+    lookups.incrementAndGet();
+    return locations.get(query);
+  }
+
+  /** Returns how many times {@code geocode} has been called. */
+  public int getLookupCount() {
+    return lookups.get();
+  }
+}
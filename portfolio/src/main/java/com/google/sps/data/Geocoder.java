@@ -0,0 +1,28 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.data;
+
+import java.io.IOException;
+
+/** Finds where a free-text place query, such as "Prospect Park, Brooklyn", is on the map. */
+public interface Geocoder {
+
+  /**
+   * Returns the best match for 'query', or null if nothing matches.
+   *
+   * @throws IOException If the lookup failed and may succeed if it is tried again later.
+   */
+  Location geocode(String query) throws IOException;
+}
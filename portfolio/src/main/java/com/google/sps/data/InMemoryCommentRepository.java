@@ -0,0 +1,97 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.data;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps comments in memory, for running the servlets locally at full speed. Comments are ordered
+ * by when they were added, which is also the order of their times since comments are stamped as
+ * they are posted. Readers never block writers, and a page being read is not disturbed by comments
+ * added at the same time.
+ */
+public final class InMemoryCommentRepository implements CommentRepository {
+  private final AtomicLong nextSequence = new AtomicLong();
+  private final ConcurrentSkipListMap<Long, Comment> comments = new ConcurrentSkipListMap<>();
+  private final CommentSearchIndex searchIndex = new CommentSearchIndex();
+
+  @Override
+  public void add(Comment comment) {
+    comments.put(nextSequence.getAndIncrement(), comment);
+    // Index only once the comment is stored, so a search never finds a comment the feed lacks.
+    searchIndex.add(comment);
+  }
+
+  @Override
+  public void addAll(List<Comment> comments) {
+    for (Comment comment : comments) {
+      add(comment);
+    }
+  }
+
+  @Override
+  public String visitNewest(int limit, String cursor, Visitor<Comment> visitor)
+      throws IOException {
+    // The cursor is the sequence number of the last comment visited.
+    NavigableMap<Long, Comment> older = cursor == null
+        ? comments.descendingMap()
+        : comments.headMap(parseCursor(cursor), false).descendingMap();
+    int count = 0;
+    long last = 0;
+    for (Map.Entry<Long, Comment> entry : older.entrySet()) {
+      if (count == limit) {
+        break;
+      }
+      visitor.visit(entry.getValue());
+      last = entry.getKey();
+      count++;
+    }
+    return count == limit ? Long.toString(last) : null;
+  }
+
+  @Override
+  public long getNewestTime() {
+    Map.Entry<Long, Comment> newest = comments.lastEntry();
+    return newest == null ? 0 : newest.getValue().getTime();
+  }
+
+  @Override
+  public List<Comment> search(String query, int limit) {
+    return searchIndex.search(query, limit);
+  }
+
+  @Override
+  public boolean isValidCursor(String cursor) {
+    try {
+      parseCursor(cursor);
+      return true;
+    } catch (IllegalArgumentException e) {
+      return false;
+    }
+  }
+
+  private static long parseCursor(String cursor) {
+    long sequence = Long.parseLong(cursor);
+    if (sequence < 0) {
+      throw new IllegalArgumentException("Invalid cursor: " + cursor);
+    }
+    return sequence;
+  }
+}
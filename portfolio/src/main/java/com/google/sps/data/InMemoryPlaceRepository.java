@@ -0,0 +1,45 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.data;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Keeps places in memory. Places are read on every map load and almost never added, so they are
+ * kept in a copy-on-write list which readers can walk without locking.
+ */
+public final class InMemoryPlaceRepository implements PlaceRepository {
+  private final List<Place> places = new CopyOnWriteArrayList<>();
+
+  @Override
+  public void add(Place place) {
+    places.add(place);
+  }
+
+  @Override
+  public void setLocation(String query, Location location) {
+    places.replaceAll(
+        place -> query.equals(place.getQuery()) ? place.withLocation(location) : place);
+  }
+
+  @Override
+  public void visitAll(Visitor<Place> visitor) throws IOException {
+    for (Place place : places) {
+      visitor.visit(place);
+    }
+  }
+}
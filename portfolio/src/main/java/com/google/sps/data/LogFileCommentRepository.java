@@ -0,0 +1,120 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.data;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Stores comments in an append-only {@code MappedRecordLog}, for running the servlets locally
+ * with comments that survive a restart but without a Datastore emulator.
+ */
+public final class LogFileCommentRepository implements CommentRepository {
+  private final MappedRecordLog log;
+
+  public LogFileCommentRepository(MappedRecordLog log) {
+    this.log = log;
+  }
+
+  @Override
+  public void add(Comment comment) {
+    String name = comment.getName();
+    String content = comment.getContent();
+    ByteBuffer record = ByteBuffer.allocate(
+        Long.BYTES + MappedRecordLog.stringSize(name) + MappedRecordLog.stringSize(content));
+    record.putLong(comment.getTime());
+    MappedRecordLog.putString(record, name);
+    MappedRecordLog.putString(record, content);
+    try {
+      log.append(record.array());
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  @Override
+  public void addAll(List<Comment> comments) {
+    for (Comment comment : comments) {
+      add(comment);
+    }
+  }
+
+  @Override
+  public String visitNewest(int limit, String cursor, Visitor<Comment> visitor)
+      throws IOException {
+    // The cursor is the index of the last comment visited; older comments have lower indexes.
+    int index = (cursor == null ? log.size() : parseCursor(cursor)) - 1;
+    int count = 0;
+    for (; index >= 0 && count < limit; index--) {
+      ByteBuffer record = log.read(index);
+      long time = record.getLong();
+      String name = MappedRecordLog.getString(record);
+      String content = MappedRecordLog.getString(record);
+      visitor.visit(new Comment(name, content, time));
+      count++;
+    }
+    return count == limit ? Integer.toString(index + 1) : null;
+  }
+
+  @Override
+  public long getNewestTime() {
+    int size = log.size();
+    return size == 0 ? 0 : log.read(size - 1).getLong();
+  }
+
+  /**
+   * Reads every comment in the log and ranks those which match. The log is only used to run the
+   * app locally, so a scan is cheaper than keeping an index in step with it.
+   */
+  @Override
+  public List<Comment> search(String query, int limit) {
+    Set<String> words = CommentSearchIndex.tokenize(query);
+    CommentSearchIndex matches = new CommentSearchIndex();
+    int size = log.size();
+    for (int index = 0; index < size; index++) {
+      ByteBuffer record = log.read(index);
+      long time = record.getLong();
+      String name = MappedRecordLog.getString(record);
+      String content = MappedRecordLog.getString(record);
+      Comment comment = new Comment(name, content, time);
+      if (!Collections.disjoint(words, CommentSearchIndex.keywords(comment))) {
+        matches.add(comment);
+      }
+    }
+    return matches.search(query, limit);
+  }
+
+  @Override
+  public boolean isValidCursor(String cursor) {
+    try {
+      parseCursor(cursor);
+      return true;
+    } catch (IllegalArgumentException e) {
+      return false;
+    }
+  }
+
+  private int parseCursor(String cursor) {
+    int index = Integer.parseInt(cursor);
+    if (index < 0 || index > log.size()) {
+      throw new IllegalArgumentException("Invalid cursor: " + cursor);
+    }
+    return index;
+  }
+}
@@ -0,0 +1,98 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.data;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Stores places in an append-only {@code MappedRecordLog}. The log holds two kinds of record: a
+ * place, and the location of every place with a given query. A later location record replaces an
+ * earlier one for the same query.
+ */
+public final class LogFilePlaceRepository implements PlaceRepository {
+  private static final byte PLACE_RECORD = 0;
+  private static final byte LOCATION_RECORD = 1;
+
+  private final MappedRecordLog log;
+
+  public LogFilePlaceRepository(MappedRecordLog log) {
+    this.log = log;
+  }
+
+  @Override
+  public void add(Place place) {
+    String query = place.getQuery();
+    String comment = place.getComment();
+    ByteBuffer record = ByteBuffer.allocate(
+        1 + MappedRecordLog.stringSize(query) + MappedRecordLog.stringSize(comment));
+    record.put(PLACE_RECORD);
+    MappedRecordLog.putString(record, query);
+    MappedRecordLog.putString(record, comment);
+    append(record);
+    if (place.getLocation() != null) {
+      setLocation(query, place.getLocation());
+    }
+  }
+
+  @Override
+  public void setLocation(String query, Location location) {
+    ByteBuffer record = ByteBuffer.allocate(1 + MappedRecordLog.stringSize(query)
+        + MappedRecordLog.stringSize(location.getName())
+        + MappedRecordLog.stringSize(location.getAddress()) + 2 * Double.BYTES);
+    record.put(LOCATION_RECORD);
+    MappedRecordLog.putString(record, query);
+    MappedRecordLog.putString(record, location.getName());
+    MappedRecordLog.putString(record, location.getAddress());
+    record.putDouble(location.getLat());
+    record.putDouble(location.getLng());
+    append(record);
+  }
+
+  @Override
+  public void visitAll(Visitor<Place> visitor) throws IOException {
+    int size = log.size();
+    // Locations may be recorded long after their place, so collect them before visiting.
+    Map<String, Location> locations = new HashMap<>();
+    for (int i = 0; i < size; i++) {
+      ByteBuffer record = log.read(i);
+      if (record.get() == LOCATION_RECORD) {
+        String query = MappedRecordLog.getString(record);
+        String name = MappedRecordLog.getString(record);
+        String address = MappedRecordLog.getString(record);
+        locations.put(query, new Location(name, address, record.getDouble(), record.getDouble()));
+      }
+    }
+    for (int i = 0; i < size; i++) {
+      ByteBuffer record = log.read(i);
+      if (record.get() == PLACE_RECORD) {
+        String query = MappedRecordLog.getString(record);
+        String comment = MappedRecordLog.getString(record);
+        visitor.visit(new Place(query, comment, locations.get(query)));
+      }
+    }
+  }
+
+  private void append(ByteBuffer record) {
+    try {
+      log.append(record.array());
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
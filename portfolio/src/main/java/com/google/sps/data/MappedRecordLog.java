@@ -0,0 +1,182 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.data;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * An append-only log of byte records in a memory-mapped file. Appending copies the record into
+ * the mapping, so it costs no system call, and reading a record returns a view of the mapping
+ * without copying it. Records are numbered from 0 in the order they were appended.
+ *
+ * <p>Each record is stored as its length followed by its bytes. The length is written after the
+ * bytes, so a record cut short when the process dies reads as the end of the log. Records reach the
+ * disk when the operating system writes the mapping back, or on {@code force}. The whole log must
+ * fit in a single mapping of at most 2 GiB.
+ */
+public final class MappedRecordLog implements Closeable {
+  private static final int HEADER_BYTES = Integer.BYTES;
+  private static final int INITIAL_CAPACITY = 1 << 20;
+  private static final int INITIAL_RECORDS = 64;
+
+  private final FileChannel channel;
+
+  // Replaced on every append, so readers always see a consistent mapping, index and count.
+  private volatile State state;
+
+  /** Opens the log in 'file', creating the file if it does not exist. */
+  public MappedRecordLog(Path file) throws IOException {
+    channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+        StandardOpenOption.WRITE);
+    long capacity = INITIAL_CAPACITY;
+    while (capacity < channel.size()) {
+      capacity *= 2;
+    }
+    MappedByteBuffer buffer = map(capacity);
+
+    // Rebuild the index by walking the records until the first empty header.
+    int[] offsets = new int[INITIAL_RECORDS];
+    int count = 0;
+    int offset = 0;
+    while (offset + HEADER_BYTES <= buffer.capacity()) {
+      int length = buffer.getInt(offset);
+      if (length <= 0 || (long) offset + HEADER_BYTES + length > buffer.capacity()) {
+        break;
+      }
+      if (count == offsets.length) {
+        offsets = Arrays.copyOf(offsets, count * 2);
+      }
+      offsets[count++] = offset;
+      offset += HEADER_BYTES + length;
+    }
+    state = new State(buffer, offsets, count, offset);
+  }
+
+  /** Returns the number of records in the log. */
+  public int size() {
+    return state.count;
+  }
+
+  /** Appends a record and returns its index. Records may not be empty. */
+  public synchronized int append(byte[] record) throws IOException {
+    if (record.length == 0) {
+      throw new IllegalArgumentException("Records may not be empty");
+    }
+    State current = state;
+    MappedByteBuffer buffer = current.buffer;
+    long end = (long) current.end + HEADER_BYTES + record.length;
+    if (end + HEADER_BYTES > buffer.capacity()) {
+      long capacity = buffer.capacity();
+      while (capacity < end + HEADER_BYTES) {
+        capacity *= 2;
+      }
+      if (capacity > Integer.MAX_VALUE) {
+        throw new IOException("The log is full");
+      }
+      buffer = map(capacity);
+    }
+
+    ByteBuffer body = buffer.duplicate();
+    body.position(current.end + HEADER_BYTES);
+    body.put(record);
+    buffer.putInt(current.end, record.length);
+
+    int[] offsets = current.offsets;
+    if (current.count == offsets.length) {
+      offsets = Arrays.copyOf(offsets, current.count * 2);
+    }
+    offsets[current.count] = current.end;
+    state = new State(buffer, offsets, current.count + 1, (int) end);
+    return current.count;
+  }
+
+  /** Returns a read-only view of the record at 'index'. */
+  public ByteBuffer read(int index) {
+    State current = state;
+    if (index < 0 || index >= current.count) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + current.count);
+    }
+    int offset = current.offsets[index];
+    ByteBuffer record = current.buffer.asReadOnlyBuffer();
+    record.position(offset + HEADER_BYTES);
+    record.limit(offset + HEADER_BYTES + current.buffer.getInt(offset));
+    return record.slice();
+  }
+
+  /** Writes any appended records which are still only in memory to the disk. */
+  public void force() {
+    state.buffer.force();
+  }
+
+  @Override
+  public synchronized void close() throws IOException {
+    force();
+    channel.close();
+  }
+
+  /** Returns the number of bytes {@code putString} uses for 's'. */
+  static int stringSize(String s) {
+    return Integer.BYTES + (s == null ? 0 : s.getBytes(StandardCharsets.UTF_8).length);
+  }
+
+  /** Writes a string, which may be null, as its UTF-8 length followed by its bytes. */
+  static void putString(ByteBuffer buffer, String s) {
+    if (s == null) {
+      buffer.putInt(-1);
+      return;
+    }
+    byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+    buffer.putInt(bytes.length);
+    buffer.put(bytes);
+  }
+
+  /** Reads a string written by {@code putString}. */
+  static String getString(ByteBuffer buffer) {
+    int length = buffer.getInt();
+    if (length < 0) {
+      return null;
+    }
+    byte[] bytes = new byte[length];
+    buffer.get(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  private MappedByteBuffer map(long capacity) throws IOException {
+    // Mapping past the end of the file grows it; the new space reads as zeros.
+    return channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+  }
+
+  private static final class State {
+    final MappedByteBuffer buffer;
+    final int[] offsets;
+    final int count;
+    final int end;
+
+    State(MappedByteBuffer buffer, int[] offsets, int count, int end) {
+      this.buffer = buffer;
+      this.offsets = offsets;
+      this.count = count;
+      this.end = end;
+    }
+  }
+}
@@ -18,10 +18,34 @@ package com.google.sps.data;
 public class Place {
   private final String query;
   private final String comment;
+  // Null until the query has been geocoded.
+  private final Location location;
 
   public Place(String query, String comment) {
+    this(query, comment, null);
+  }
+
+  public Place(String query, String comment, Location location) {
     this.query = query;
     this.comment = comment;
+    this.location = location;
   }
 
+  public String getQuery() {
+    return query;
+  }
+
+  public String getComment() {
+    return comment;
+  }
+
+  /** Returns where the place is, or null if its query has not been geocoded yet. */
+  public Location getLocation() {
+    return location;
+  }
+
+  /** Returns a copy of this place at 'location'. */
+  public Place withLocation(Location location) {
+    return new Place(query, comment, location);
+  }
 }
@@ -0,0 +1,115 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.data;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
+
+/**
+ * Converts a {@code Place} to and from JSON without reflection. The JSON has the same shape that
+ * Gson's reflective adapter produces.
+ */
+public final class PlaceAdapter extends TypeAdapter<Place> {
+  @Override
+  public void write(JsonWriter out, Place place) throws IOException {
+    if (place == null) {
+      out.nullValue();
+      return;
+    }
+    out.beginObject();
+    out.name("query").value(place.getQuery());
+    out.name("comment").value(place.getComment());
+    Location location = place.getLocation();
+    if (location != null) {
+      out.name("location").beginObject();
+      out.name("name").value(location.getName());
+      out.name("address").value(location.getAddress());
+      out.name("lat").value(location.getLat());
+      out.name("lng").value(location.getLng());
+      out.endObject();
+    }
+    out.endObject();
+  }
+
+  @Override
+  public Place read(JsonReader in) throws IOException {
+    if (in.peek() == JsonToken.NULL) {
+      in.nextNull();
+      return null;
+    }
+    String query = null;
+    String comment = null;
+    Location location = null;
+    in.beginObject();
+    while (in.hasNext()) {
+      String field = in.nextName();
+      if (in.peek() == JsonToken.NULL) {
+        in.nextNull();
+        continue;
+      }
+      switch (field) {
+        case "query":
+          query = in.nextString();
+          break;
+        case "comment":
+          comment = in.nextString();
+          break;
+        case "location":
+          location = readLocation(in);
+          break;
+        default:
+          in.skipValue();
+      }
+    }
+    in.endObject();
+    return new Place(query, comment, location);
+  }
+
+  private static Location readLocation(JsonReader in) throws IOException {
+    String name = null;
+    String address = null;
+    double lat = 0;
+    double lng = 0;
+    in.beginObject();
+    while (in.hasNext()) {
+      String field = in.nextName();
+      if (in.peek() == JsonToken.NULL) {
+        in.nextNull();
+        continue;
+      }
+      switch (field) {
+        case "name":
+          name = in.nextString();
+          break;
+        case "address":
+          address = in.nextString();
+          break;
+        case "lat":
+          lat = in.nextDouble();
+          break;
+        case "lng":
+          lng = in.nextDouble();
+          break;
+        default:
+          in.skipValue();
+      }
+    }
+    in.endObject();
+    return new Location(name, address, lat, lng);
+  }
+}
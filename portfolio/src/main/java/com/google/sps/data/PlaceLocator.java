@@ -0,0 +1,116 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.data;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Geocodes place queries in the background, so serving the map never waits on the geocoder. A
+ * location found by the {@code Geocoder} is stored in the {@code PlaceRepository}, so it is served
+ * from there on every later request and after a restart.
+ *
+ * <p>{@code scheduleIfNeeded} hands a query which has no location yet to a scheduler, such as a
+ * task queue, which later calls {@code locate}. A query is scheduled again only after a delay that
+ * doubles every time, so a query the geocoder cannot match, or cannot reach, is not looked up on
+ * every request.
+ */
+public final class PlaceLocator {
+  static final long INITIAL_BACKOFF_MILLIS = 60_000;
+  static final long MAX_BACKOFF_MILLIS = 24 * 60 * 60_000;
+
+  private final PlaceRepository places;
+  private final Geocoder geocoder;
+  private final Consumer<String> scheduler;
+  private final LongSupplier clock;
+  // When each query which has been scheduled may be scheduled again.
+  private final Map<String, Backoff> backoffs = new ConcurrentHashMap<>();
+
+  /**
+   * Creates a locator which stores the locations it finds in 'places'.
+   *
+   * @param scheduler Arranges for {@code locate} to be called with a query soon, off the request.
+   * @param clock Returns the current time in milliseconds.
+   */
+  public PlaceLocator(PlaceRepository places, Geocoder geocoder, Consumer<String> scheduler,
+      LongSupplier clock) {
+    this.places = places;
+    this.geocoder = geocoder;
+    this.scheduler = scheduler;
+    this.clock = clock;
+  }
+
+  /**
+   * Schedules the query of 'place' to be geocoded if it has no location and was not scheduled too
+   * recently. Returns whether it was scheduled.
+   */
+  public boolean scheduleIfNeeded(Place place) {
+    String query = place.getQuery();
+    if (place.getLocation() != null || query == null) {
+      return false;
+    }
+    long now = clock.getAsLong();
+    Backoff current = backoffs.get(query);
+    if (current != null && now < current.retryAt) {
+      return false;
+    }
+    Backoff next = current == null
+        ? new Backoff(INITIAL_BACKOFF_MILLIS, now + INITIAL_BACKOFF_MILLIS)
+        : current.next(now);
+    // Only the request which claims the next attempt schedules it.
+    boolean claimed = current == null
+        ? backoffs.putIfAbsent(query, next) == null
+        : backoffs.replace(query, current, next);
+    if (claimed) {
+      scheduler.accept(query);
+    }
+    return claimed;
+  }
+
+  /**
+   * Geocodes 'query' and stores its location for every place with that query. Returns false if
+   * the geocoder found no match.
+   *
+   * @throws IOException If the geocoder failed, so the scheduler should try again later.
+   */
+  public boolean locate(String query) throws IOException {
+    Location location = geocoder.geocode(query);
+    if (location == null) {
+      return false;
+    }
+    places.setLocation(query, location);
+    backoffs.remove(query);
+    return true;
+  }
+
+  /** The delay before a query may be scheduled again, and the time that delay ends. */
+  private static final class Backoff {
+    private final long delay;
+    private final long retryAt;
+
+    Backoff(long delay, long retryAt) {
+      this.delay = delay;
+      this.retryAt = retryAt;
+    }
+
+    Backoff next(long now) {
+      long nextDelay = Math.min(delay * 2, MAX_BACKOFF_MILLIS);
+      return new Backoff(nextDelay, now + nextDelay);
+    }
+  }
+}
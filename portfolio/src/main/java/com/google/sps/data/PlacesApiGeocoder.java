@@ -0,0 +1,89 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.data;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UnsupportedEncodingException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+
+/** A {@code Geocoder} which looks places up with the "Find Place" request of the Places API. */
+public final class PlacesApiGeocoder implements Geocoder {
+  private static final String FIND_PLACE_URL =
+      "https://maps.googleapis.com/maps/api/place/findplacefromtext/json"
+          + "?inputtype=textquery&fields=name,formatted_address,geometry";
+  private static final int TIMEOUT_MILLIS = 5000;
+
+  private final String apiKey;
+
+  public PlacesApiGeocoder(String apiKey) {
+    this.apiKey = apiKey;
+  }
+
+  @Override
+  public Location geocode(String query) throws IOException {
+    URL url = new URL(FIND_PLACE_URL + "&input=" + encode(query) + "&key=" + encode(apiKey));
+    HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+    connection.setConnectTimeout(TIMEOUT_MILLIS);
+    connection.setReadTimeout(TIMEOUT_MILLIS);
+    try (Reader reader =
+        new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8)) {
+      return parseResponse(JsonParser.parseReader(reader).getAsJsonObject());
+    } catch (JsonParseException | IllegalStateException e) {
+      throw new IOException("Unexpected response from the Places API", e);
+    } finally {
+      connection.disconnect();
+    }
+  }
+
+  static Location parseResponse(JsonObject response) throws IOException {
+    if (!response.has("status")) {
+      throw new IOException("The Places API returned no status");
+    }
+    String status = response.get("status").getAsString();
+    if (status.equals("ZERO_RESULTS")) {
+      return null;
+    }
+    if (!status.equals("OK")) {
+      throw new IOException("The Places API returned " + status);
+    }
+    JsonArray candidates = response.getAsJsonArray("candidates");
+    if (candidates.size() == 0) {
+      return null;
+    }
+    JsonObject best = candidates.get(0).getAsJsonObject();
+    JsonObject location = best.getAsJsonObject("geometry").getAsJsonObject("location");
+    return new Location(getString(best, "name"), getString(best, "formatted_address"),
+        location.get("lat").getAsDouble(), location.get("lng").getAsDouble());
+  }
+
+  private static String getString(JsonObject object, String member) {
+    JsonElement element = object.get(member);
+    return element == null || element.isJsonNull() ? null : element.getAsString();
+  }
+
+  private static String encode(String s) throws UnsupportedEncodingException {
+    return URLEncoder.encode(s, "UTF-8");
+  }
+}
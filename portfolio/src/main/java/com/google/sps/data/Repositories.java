@@ -0,0 +1,78 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.data;
+
+import com.google.appengine.api.datastore.DatastoreService;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * The repositories the servlets use, picked by the 'portfolio.storage' system property:
+ * "datastore" (the default), "memory", or "file" to keep append-only logs in the directory named
+ * by 'portfolio.storage.dir'.
+ */
+public final class Repositories implements Closeable {
+  private static final String STORAGE_PROPERTY = "portfolio.storage";
+  private static final String DIRECTORY_PROPERTY = "portfolio.storage.dir";
+
+  private final CommentRepository comments;
+  private final PlaceRepository places;
+  // The log files to close on shutdown, if the storage uses any.
+  private final MappedRecordLog[] logs;
+
+  private Repositories(CommentRepository comments, PlaceRepository places,
+      MappedRecordLog... logs) {
+    this.comments = comments;
+    this.places = places;
+    this.logs = logs;
+  }
+
+  /** Creates the repositories named by the system properties, using 'datastore' if needed. */
+  public static Repositories fromSystemProperties(DatastoreService datastore) throws IOException {
+    String storage = System.getProperty(STORAGE_PROPERTY, "datastore");
+    switch (storage) {
+      case "datastore":
+        return new Repositories(
+            new DatastoreCommentRepository(datastore), new DatastorePlaceRepository(datastore));
+      case "memory":
+        return new Repositories(new InMemoryCommentRepository(), new InMemoryPlaceRepository());
+      case "file":
+        Path directory = Paths.get(System.getProperty(DIRECTORY_PROPERTY, "."));
+        MappedRecordLog commentLog = new MappedRecordLog(directory.resolve("comments.log"));
+        MappedRecordLog placeLog = new MappedRecordLog(directory.resolve("places.log"));
+        return new Repositories(new LogFileCommentRepository(commentLog),
+            new LogFilePlaceRepository(placeLog), commentLog, placeLog);
+      default:
+        throw new IllegalStateException("Unknown " + STORAGE_PROPERTY + ": " + storage);
+    }
+  }
+
+  public CommentRepository comments() {
+    return comments;
+  }
+
+  public PlaceRepository places() {
+    return places;
+  }
+
+  @Override
+  public void close() throws IOException {
+    for (MappedRecordLog log : logs) {
+      log.close();
+    }
+  }
+}
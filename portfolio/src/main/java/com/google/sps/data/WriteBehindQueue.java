@@ -0,0 +1,233 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.data;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Queues items in memory and writes them to storage in batches on a background thread, so the
+ * request which created an item does not wait for a storage round trip.
+ *
+ * <p>A batch is written as soon as 'batchSize' items are waiting, or every 'flushIntervalMillis'
+ * otherwise. A failed batch is kept and retried by the first flush after a delay that doubles up
+ * to {@code MAX_BACKOFF_MILLIS}, and after {@code MAX_ATTEMPTS} failures the batch is logged and
+ * dropped so one bad batch can't hold up the rest. Queued items are not visible to queries until
+ * their batch has been written.
+ */
+public final class WriteBehindQueue<T> {
+  private static final Logger logger = Logger.getLogger(WriteBehindQueue.class.getName());
+
+  static final long INITIAL_BACKOFF_MILLIS = 100;
+  static final long MAX_BACKOFF_MILLIS = 10_000;
+  static final int MAX_ATTEMPTS = 5;
+
+  private final Consumer<List<T>> writer;
+  private final int batchSize;
+  private final Runnable onFlush;
+  private final LongSupplier clock;
+  private final BlockingQueue<T> queue;
+  private final ScheduledExecutorService flusher;
+
+  // Set while a size-triggered flush is scheduled, so a burst of writes schedules only one.
+  private final AtomicBoolean flushScheduled = new AtomicBoolean();
+  private final AtomicLong written = new AtomicLong();
+  private final AtomicLong failedFlushes = new AtomicLong();
+  private final AtomicLong dropped = new AtomicLong();
+
+  // Held for a single write attempt at a time, never while waiting out a backoff. It guards the
+  // batch being written, which is only cleared once the write succeeds or is given up on.
+  private final Lock writeLock = new ReentrantLock();
+  private final List<T> pending = new ArrayList<>();
+  private int pendingAttempts;
+  private long retryAt;
+
+  // Adds hold the read lock and shutdown takes the write lock to close the queue, so no item can
+  // be queued after the final drain.
+  private final ReadWriteLock closeLock = new ReentrantReadWriteLock();
+  private boolean closed;
+
+  /**
+   * Creates a queue and starts its background thread.
+   *
+   * @param writer Writes a batch to storage, throwing an unchecked exception if it fails.
+   * @param capacity The most items that may wait at once; {@code add} refuses any more.
+   * @param batchSize The most items passed to a single call of 'writer'.
+   * @param flushIntervalMillis How long an item may wait before a partial batch is written.
+   * @param onFlush Runs after every successful write, such as to invalidate a cache.
+   */
+  public WriteBehindQueue(Consumer<List<T>> writer, int capacity, int batchSize,
+      long flushIntervalMillis, Runnable onFlush) {
+    this(writer, capacity, batchSize, flushIntervalMillis, onFlush, System::currentTimeMillis);
+  }
+
+  WriteBehindQueue(Consumer<List<T>> writer, int capacity, int batchSize,
+      long flushIntervalMillis, Runnable onFlush, LongSupplier clock) {
+    this.writer = writer;
+    this.batchSize = batchSize;
+    this.onFlush = onFlush;
+    this.clock = clock;
+    this.queue = new LinkedBlockingQueue<>(capacity);
+    this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "write-behind-queue");
+      thread.setDaemon(true);
+      return thread;
+    });
+    flusher.scheduleWithFixedDelay(
+        this::flush, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Queues 'item' to be written. Returns false if the queue is full or shut down, in which case the
+   * caller should write the item itself.
+   */
+  public boolean add(T item) {
+    closeLock.readLock().lock();
+    try {
+      if (closed || !queue.offer(item)) {
+        return false;
+      }
+      if (queue.size() >= batchSize && flushScheduled.compareAndSet(false, true)) {
+        flusher.execute(() -> {
+          flushScheduled.set(false);
+          flush();
+        });
+      }
+      return true;
+    } finally {
+      closeLock.readLock().unlock();
+    }
+  }
+
+  /** Returns the number of queued items, not counting a batch which is being written. */
+  public int getDepth() {
+    return queue.size();
+  }
+
+  /** Returns the number of items written so far. */
+  public long getWrittenCount() {
+    return written.get();
+  }
+
+  /** Returns the number of writes which failed and had to be retried. */
+  public long getFailedFlushCount() {
+    return failedFlushes.get();
+  }
+
+  /** Returns the number of items dropped after their batch failed {@code MAX_ATTEMPTS} times. */
+  public long getDroppedCount() {
+    return dropped.get();
+  }
+
+  /**
+   * Stops accepting items and waits for the background thread to finish, then makes one last
+   * attempt to write each remaining batch, ignoring any backoff. Returns the number of items which
+   * were lost.
+   */
+  public int shutdown() throws InterruptedException {
+    closeLock.writeLock().lock();
+    try {
+      closed = true;
+    } finally {
+      closeLock.writeLock().unlock();
+    }
+    flusher.shutdownNow();
+    flusher.awaitTermination(MAX_BACKOFF_MILLIS, TimeUnit.MILLISECONDS);
+
+    writeLock.lock();
+    try {
+      int lost = 0;
+      while (!pending.isEmpty() || queue.drainTo(pending, batchSize) > 0) {
+        if (put(pending)) {
+          written.addAndGet(pending.size());
+          onFlush.run();
+        } else {
+          lost += pending.size();
+        }
+        pending.clear();
+      }
+      return lost;
+    } finally {
+      writeLock.unlock();
+    }
+  }
+
+  /**
+   * Writes batches until the queue is empty. If a write fails, the batch is kept for a later flush
+   * to retry once its backoff has passed, instead of waiting for it here.
+   */
+  void flush() {
+    writeLock.lock();
+    try {
+      while (!pending.isEmpty() || queue.drainTo(pending, batchSize) > 0) {
+        long now = clock.getAsLong();
+        if (now < retryAt) {
+          // Still backing off after a failed write.
+          return;
+        }
+        if (put(pending)) {
+          written.addAndGet(pending.size());
+          clearPending();
+          onFlush.run();
+        } else if (++pendingAttempts >= MAX_ATTEMPTS) {
+          logger.severe(
+              "Dropping " + pending.size() + " items after " + MAX_ATTEMPTS + " failed writes");
+          dropped.addAndGet(pending.size());
+          clearPending();
+        } else {
+          long backoff = Math.min(
+              INITIAL_BACKOFF_MILLIS << (pendingAttempts - 1), MAX_BACKOFF_MILLIS);
+          retryAt = now + backoff;
+          return;
+        }
+      }
+    } finally {
+      writeLock.unlock();
+    }
+  }
+
+  private void clearPending() {
+    pending.clear();
+    pendingAttempts = 0;
+    retryAt = 0;
+  }
+
+  /** Makes one attempt to write 'batch'. */
+  private boolean put(List<T> batch) {
+    try {
+      writer.accept(batch);
+      return true;
+    } catch (RuntimeException e) {
+      failedFlushes.incrementAndGet();
+      logger.log(Level.WARNING, "Failed to write " + batch.size() + " items", e);
+      return false;
+    }
+  }
+}
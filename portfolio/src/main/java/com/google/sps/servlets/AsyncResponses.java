@@ -0,0 +1,333 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import com.google.gson.stream.JsonWriter;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.GZIPOutputStream;
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Answers requests asynchronously, so a container thread is only held while a request is parsed.
+ * The body is produced on a bounded executor and handed in chunks to a non-blocking
+ * {@code WriteListener}, so a slow query or a slow client ties up none of the container's threads,
+ * and a long body is never held in memory all at once.
+ *
+ * <p>If the request times out or fails, the task producing its body is cancelled and the client
+ * gets a 503 if nothing has been sent yet. The request is completed exactly once, and a task which
+ * is still running afterwards can no longer touch the response.
+ */
+final class AsyncResponses {
+  private static final Logger logger = Logger.getLogger(AsyncResponses.class.getName());
+
+  private static final long TIMEOUT_MILLIS = 30_000;
+  static final int RETRY_AFTER_SECONDS = 1;
+
+  // A producer which gets this far ahead of the client waits for it to catch up.
+  static final int CHUNK_BYTES = 8192;
+  static final int MAX_PENDING_CHUNKS = 4;
+
+  private AsyncResponses() {
+    // Disallow instances.
+  }
+
+  /** Produces a response off the container thread. */
+  interface Responder {
+    /**
+     * Sets the response headers and writes the body through 'exchange', or writes no body, such
+     * as for a 304.
+     */
+    void respond(Exchange exchange) throws IOException;
+  }
+
+  /**
+   * Puts 'request' into asynchronous mode and runs 'responder' on 'executor'. Answers with 503 if
+   * the executor has no room for another request.
+   */
+  static void respond(HttpServletRequest request, HttpServletResponse response,
+      ExecutorService executor, Responder responder) {
+    AsyncContext async = request.startAsync();
+    async.setTimeout(TIMEOUT_MILLIS);
+    Exchange exchange = new Exchange(request, response, async);
+    async.addListener(exchange);
+    try {
+      exchange.setTask(executor.submit(() -> exchange.run(responder)));
+    } catch (RejectedExecutionException e) {
+      exchange.fail(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+    }
+  }
+
+  /**
+   * The response to one asynchronous request, as seen by its {@code Responder}. Every method
+   * throws an {@code IOException} once the request has been completed, such as by a timeout.
+   */
+  static final class Exchange implements AsyncListener, WriteListener {
+    private final HttpServletRequest request;
+    private final HttpServletResponse response;
+    private final AsyncContext async;
+
+    // All of the following are guarded by this.
+    private Future<?> task;
+    private boolean finished = false;
+    // Chunks waiting for the client, and whether the last chunk of the body is among them.
+    private final Deque<byte[]> chunks = new ArrayDeque<>();
+    private boolean complete = false;
+    // Null until the first chunk is queued.
+    private ServletOutputStream out;
+
+    private Exchange(HttpServletRequest request, HttpServletResponse response,
+        AsyncContext async) {
+      this.request = request;
+      this.response = response;
+      this.async = async;
+    }
+
+    /** Sets the response headers and checks the request's validators; see {@code HttpCaching}. */
+    synchronized boolean isNotModified(String etag, long lastModified) throws IOException {
+      checkOpen();
+      return HttpCaching.isNotModified(request, response, etag, lastModified);
+    }
+
+    /** Writes a body which is already in memory, gzipped if it is large enough to pay off. */
+    synchronized void writeBody(byte[] bytes, Supplier<byte[]> gzippedBytes) throws IOException {
+      checkOpen();
+      if (bytes.length >= HttpCaching.MIN_GZIP_BYTES && HttpCaching.acceptsGzip(request)) {
+        bytes = gzippedBytes.get();
+        response.setHeader("Content-Encoding", "gzip");
+      }
+      response.setContentLength(bytes.length);
+      offer(bytes, true);
+    }
+
+    /**
+     * Returns a stream over the response body, gzipped if the browser accepts it. Writes block
+     * while the client is too far behind. The caller must close it to finish the response.
+     */
+    synchronized OutputStream openBody() throws IOException {
+      checkOpen();
+      if (!HttpCaching.acceptsGzip(request)) {
+        return new ChunkStream();
+      }
+      response.setHeader("Content-Encoding", "gzip");
+      return new GZIPOutputStream(new ChunkStream(), CHUNK_BYTES);
+    }
+
+    /** Returns a JSON writer over {@code openBody}. The caller must close it when done. */
+    JsonWriter openJsonWriter() throws IOException {
+      return new JsonWriter(new BufferedWriter(
+          new OutputStreamWriter(openBody(), StandardCharsets.UTF_8), CHUNK_BYTES));
+    }
+
+    private synchronized void setTask(Future<?> task) {
+      this.task = task;
+      if (finished) {
+        task.cancel(true);
+      }
+    }
+
+    private void run(Responder responder) {
+      try {
+        responder.respond(this);
+        synchronized (this) {
+          if (out == null) {
+            // No body was written, such as for a 304.
+            finish();
+          }
+        }
+      } catch (IOException | RuntimeException e) {
+        synchronized (this) {
+          if (finished) {
+            // The request timed out or the client went away while the body was produced.
+            return;
+          }
+        }
+        logger.log(Level.WARNING, "Could not respond to " + request.getRequestURI(), e);
+        fail(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+      }
+    }
+
+    /** Answers with 'status' if nothing has been sent yet, then completes the request. */
+    private synchronized void fail(int status) {
+      if (finished) {
+        return;
+      }
+      if (task != null) {
+        task.cancel(true);
+      }
+      if (!response.isCommitted()) {
+        response.reset();
+        response.setStatus(status);
+        if (status == HttpServletResponse.SC_SERVICE_UNAVAILABLE) {
+          response.setIntHeader("Retry-After", RETRY_AFTER_SECONDS);
+        }
+      }
+      finish();
+    }
+
+    /** Completes the request unless it already was, and wakes a producer waiting to write. */
+    private synchronized void finish() {
+      if (finished) {
+        return;
+      }
+      finished = true;
+      chunks.clear();
+      notifyAll();
+      async.complete();
+    }
+
+    private void checkOpen() throws IOException {
+      if (finished) {
+        throw new IOException("The request to " + request.getRequestURI() + " was completed");
+      }
+    }
+
+    /** Queues a chunk for the client, waiting while too many are queued already. */
+    private synchronized void offer(byte[] chunk, boolean last) throws IOException {
+      try {
+        while (!finished && chunks.size() >= MAX_PENDING_CHUNKS) {
+          wait();
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new InterruptedIOException("Interrupted while writing the response");
+      }
+      checkOpen();
+      chunks.add(chunk);
+      complete = last;
+      if (out == null) {
+        out = response.getOutputStream();
+        // The container calls onWritePossible once the stream is ready.
+        out.setWriteListener(this);
+      } else {
+        drain();
+      }
+    }
+
+    /** Writes queued chunks while the client can take them without blocking. */
+    private synchronized void drain() throws IOException {
+      // isReady() returning false means the container calls onWritePossible once it can write.
+      while (!finished && out.isReady()) {
+        byte[] chunk = chunks.poll();
+        if (chunk == null) {
+          if (complete) {
+            finish();
+          }
+          return;
+        }
+        out.write(chunk);
+        notifyAll();
+      }
+    }
+
+    @Override
+    public void onWritePossible() throws IOException {
+      drain();
+    }
+
+    @Override
+    public void onError(Throwable t) {
+      logger.log(Level.FINE, "The client went away before the response was written", t);
+      fail(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+    }
+
+    @Override
+    public void onTimeout(AsyncEvent event) {
+      logger.warning("Timed out responding to " + request.getRequestURI());
+      fail(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+    }
+
+    @Override
+    public void onError(AsyncEvent event) {
+      logger.log(Level.WARNING, "Could not respond to " + request.getRequestURI(),
+          event.getThrowable());
+      fail(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+    }
+
+    @Override
+    public synchronized void onComplete(AsyncEvent event) {
+      // The container may complete the request itself, such as when the connection closes.
+      finished = true;
+      notifyAll();
+    }
+
+    @Override
+    public void onStartAsync(AsyncEvent event) {}
+
+    /** Cuts what it is given into chunks for the client, and marks the last one on close. */
+    private final class ChunkStream extends OutputStream {
+      private byte[] buffer = new byte[CHUNK_BYTES];
+      private int size = 0;
+      private boolean closed = false;
+
+      @Override
+      public void write(int b) throws IOException {
+        if (size == buffer.length) {
+          sendBuffer(false);
+        }
+        buffer[size++] = (byte) b;
+      }
+
+      @Override
+      public void write(byte[] bytes, int offset, int length) throws IOException {
+        while (length > 0) {
+          if (size == buffer.length) {
+            sendBuffer(false);
+          }
+          int count = Math.min(length, buffer.length - size);
+          System.arraycopy(bytes, offset, buffer, size, count);
+          size += count;
+          offset += count;
+          length -= count;
+        }
+      }
+
+      @Override
+      public void close() throws IOException {
+        if (!closed) {
+          closed = true;
+          sendBuffer(true);
+        }
+      }
+
+      private void sendBuffer(boolean last) throws IOException {
+        byte[] chunk = size == buffer.length ? buffer : Arrays.copyOf(buffer, size);
+        // The queued chunk now belongs to the writer, so fill a new one.
+        buffer = new byte[CHUNK_BYTES];
+        size = 0;
+        offer(chunk, last);
+      }
+    }
+  }
+}
@@ -0,0 +1,70 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonWriter;
+import com.google.sps.data.Comment;
+import com.google.sps.data.CommentRepository;
+import java.io.IOException;
+import java.util.List;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/** Servlet that searches user comments by keyword. */
+@WebServlet("/data/search")
+public class CommentSearchServlet extends HttpServlet {
+  private CommentRepository comments;
+  private TypeAdapter<Comment> commentAdapter;
+
+  @Override
+  public void init() {
+    ServiceRegistry registry = ServiceRegistry.get(getServletContext());
+    comments = registry.getRepositories().comments();
+    commentAdapter = registry.getGson().getAdapter(Comment.class);
+  }
+
+  /**
+   * Returns the comments which contain any word of the 'q' parameter, best match first. The
+   * optional 'limit' parameter sets the most comments returned.
+   */
+  @Override
+  public void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+    String query = request.getParameter("q");
+    int limit;
+    try {
+      if (query == null || query.trim().isEmpty()) {
+        throw new IllegalArgumentException("q must not be empty");
+      }
+      limit = DataServlet.getPageSize(request.getParameter("limit"));
+    } catch (IllegalArgumentException e) {
+      response.sendError(HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+      return;
+    }
+
+    List<Comment> matches = comments.search(query, limit);
+    response.setContentType(HttpCaching.JSON_CONTENT_TYPE);
+    response.setCharacterEncoding("UTF-8");
+    try (JsonWriter writer = HttpCaching.openJsonWriter(request, response)) {
+      writer.beginArray();
+      for (Comment comment : matches) {
+        commentAdapter.write(writer, comment);
+      }
+      writer.endArray();
+    }
+  }
+}
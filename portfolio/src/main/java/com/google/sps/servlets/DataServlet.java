@@ -14,32 +14,113 @@
 
 package com.google.sps.servlets;
 
-import com.google.appengine.api.datastore.DatastoreService;
-import com.google.appengine.api.datastore.DatastoreServiceFactory;
-import com.google.appengine.api.datastore.Entity;
-import com.google.appengine.api.datastore.PreparedQuery;
-import com.google.appengine.api.datastore.Query;
-import com.google.appengine.api.datastore.Query.SortDirection;
-import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonWriter;
 import com.google.sps.data.Comment;
+import com.google.sps.data.CommentCache;
+import com.google.sps.data.CommentRepository;
+import com.google.sps.data.WriteBehindQueue;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
 import javax.servlet.annotation.WebServlet;
 import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
-import java.util.ArrayList;
-import java.util.List;
 
 /**  Servlet that returns user comments. */
-@WebServlet("/data")
+@WebServlet(urlPatterns = "/data", asyncSupported = true)
 public class DataServlet extends HttpServlet {
+  private static final int DEFAULT_PAGE_SIZE = 20;
+  private static final int MAX_PAGE_SIZE = 100;
+
+  // Caches the first page at the default size, which is what every page load asks for.
+  private static final CommentCache commentCache = new CommentCache();
+
+  // Comments are written in the background when the 'comments.writeBehind' system property is set.
+  private static final int WRITE_QUEUE_CAPACITY = 1000;
+  private static final int WRITE_BATCH_SIZE = 50;
+  private static final long WRITE_FLUSH_INTERVAL_MILLIS = 1000;
+  private static volatile WriteBehindQueue<Comment> writeQueue;
+
+  private CommentRepository comments;
+  private TypeAdapter<Comment> commentAdapter;
+  private ExecutorService queryExecutor;
 
+  @Override
+  public void init() {
+    ServiceRegistry registry = ServiceRegistry.get(getServletContext());
+    queryExecutor = registry.getQueryExecutor();
+    comments = registry.getRepositories().comments();
+    commentAdapter = registry.getGson().getAdapter(Comment.class);
+    if (Boolean.getBoolean("comments.writeBehind")) {
+      writeQueue = new WriteBehindQueue<>(comments::addAll, WRITE_QUEUE_CAPACITY,
+          WRITE_BATCH_SIZE, WRITE_FLUSH_INTERVAL_MILLIS, commentCache::invalidate);
+    }
+  }
+
+  @Override
+  public void destroy() {
+    WriteBehindQueue<Comment> queue = writeQueue;
+    if (queue == null) {
+      return;
+    }
+    writeQueue = null;
+    try {
+      int lost = queue.shutdown();
+      if (lost > 0) {
+        log("Could not write " + lost + " queued comments");
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /** Returns the queue comments are written through, or null if they are written directly. */
+  static WriteBehindQueue<Comment> getWriteQueue() {
+    return writeQueue;
+  }
+
+  /**
+   * Returns one page of comments, newest first. The optional 'limit' parameter sets the page size
+   * and the optional 'cursor' parameter is the 'nextCursor' returned with the previous page. The
+   * page is read and written asynchronously, off the container thread.
+   */
   @Override
   public void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
-    List<Comment> comments = getCommentsFromDatabase();
-    String json = convertToJson(comments);
-    response.setContentType("text/html;");
-    response.getWriter().println(json);
+    int limit;
+    String cursor;
+    try {
+      limit = getPageSize(request.getParameter("limit"));
+      cursor = getCursor(request.getParameter("cursor"));
+    } catch (IllegalArgumentException e) {
+      response.sendError(HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+      return;
+    }
+
+    AsyncResponses.respond(request, response, queryExecutor, exchange -> {
+      // Older pages never change, so the newest comment versions every page, not just the first.
+      // It is taken from the cached first page, which is checked against the repository when it
+      // expires so it sees writes from other instances.
+      CommentCache.Snapshot firstPage = getFirstPage();
+      long newestTime = firstPage.getNewestTime();
+      String etag = getETag(newestTime, limit, cursor);
+      if (exchange.isNotModified(etag, newestTime)) {
+        return;
+      }
+
+      if (limit == DEFAULT_PAGE_SIZE && cursor == null) {
+        exchange.writeBody(firstPage.getJson(), firstPage::getGzippedJson);
+        return;
+      }
+      try (JsonWriter writer = exchange.openJsonWriter()) {
+        writeComments(writer, limit, cursor, null);
+      }
+    });
   }
 
   public void doPost(HttpServletRequest request, HttpServletResponse response) throws IOException {
@@ -54,40 +135,107 @@ public class DataServlet extends HttpServlet {
     response.sendRedirect(pageToRedirect);
   }
 
-  /** Creates a comment entity and sends it to the Datastore database. */
+  /**
+   * Creates a comment and sends it to the comment repository, through the write-behind queue if
+   * there is one and it has room. The repository makes it searchable as it stores it.
+   */
   private void sendCommentToDatabase(String name, String content) {
-    Entity commentEntity = new Entity("Comment");
-    commentEntity.setProperty("name", name);
-    commentEntity.setProperty("content", content);
-    commentEntity.setProperty("time", System.currentTimeMillis());
+    Comment comment = new Comment(name, content, System.currentTimeMillis());
 
-    DatastoreService datastore = DatastoreServiceFactory.getDatastoreService();
-    datastore.put(commentEntity);
+    WriteBehindQueue<Comment> queue = writeQueue;
+    if (queue != null && queue.add(comment)) {
+      // The cache is invalidated once the queue has written the comment.
+      return;
+    }
+    comments.add(comment);
+    commentCache.invalidate();
   }
 
-  /** Retrieves and returns a list of comments from the Datastore database. */
-  private List<Comment> getCommentsFromDatabase() {
-    Query query = new Query("Comment").addSort("time", SortDirection.DESCENDING);
-    DatastoreService datastore = DatastoreServiceFactory.getDatastoreService();
-    PreparedQuery results = datastore.prepare(query);
-
+  /**
+   * Returns the newest page of comments from the cache. Once the cached page has expired, it is
+   * only loaded again if it no longer ends at the newest comment, which may have been written by
+   * another instance.
+   */
+  private CommentCache.Snapshot getFirstPage() throws IOException {
+    CommentCache.Snapshot snapshot = commentCache.get();
+    if (snapshot != null) {
+      return snapshot;
+    }
+    long generation = commentCache.generation();
+    CommentCache.Snapshot expired = commentCache.getExpired();
+    if (expired != null) {
+      snapshot = commentCache.renew(expired, comments.getNewestTime());
+      if (snapshot != null) {
+        return snapshot;
+      }
+    }
     List<Comment> comments = new ArrayList<>();
-    for (Entity entity : results.asIterable()) {
-      String name = (String) entity.getProperty("name");
-      String content = (String) entity.getProperty("content");
-      long time = (long) entity.getProperty("time");
+    byte[] json = renderFirstPage(comments);
+    return commentCache.install(generation, comments, json, HttpCaching.gzip(json));
+  }
 
-      Comment comment = new Comment(name, content, time);
-      comments.add(comment);
+  /** Returns the entity tag of a page of comments while 'newestTime' is the newest comment. */
+  private static String getETag(long newestTime, int limit, String cursor) {
+    String cursorHash = cursor == null ? "" : Integer.toHexString(cursor.hashCode());
+    return "\"" + Long.toHexString(newestTime) + "-" + limit + "-" + cursorHash + "\"";
+  }
+
+  /**
+   * Returns the newest page of comments at the default size as UTF-8 JSON, for the cache, and adds
+   * every comment on it to 'collected'. Other pages are streamed to the browser instead.
+   */
+  private byte[] renderFirstPage(List<Comment> collected) throws IOException {
+    ByteArrayOutputStream json = new ByteArrayOutputStream();
+    try (JsonWriter writer =
+        new JsonWriter(new OutputStreamWriter(json, StandardCharsets.UTF_8))) {
+      writeComments(writer, DEFAULT_PAGE_SIZE, null, collected);
     }
-    return comments;
+    return json.toByteArray();
   }
 
-  /** Returns a JSON (string) representation of an object. */
-  public static String convertToJson(Object obj) {
-    Gson gson = new Gson();
-    String json = gson.toJson(obj);
-    return json;
+  private void writeComments(JsonWriter writer, int limit, String cursor, List<Comment> collected)
+      throws IOException {
+    writer.beginObject();
+    writer.name("comments").beginArray();
+    String nextCursor = comments.visitNewest(limit, cursor, comment -> {
+      commentAdapter.write(writer, comment);
+      if (collected != null) {
+        collected.add(comment);
+      }
+    });
+    writer.endArray();
+    if (nextCursor != null) {
+      writer.name("nextCursor").value(nextCursor);
+    }
+    writer.endObject();
+  }
+
+  /** Parses the requested page size, using the default if none was given. */
+  static int getPageSize(String limitParameter) {
+    if (limitParameter == null || limitParameter.isEmpty()) {
+      return DEFAULT_PAGE_SIZE;
+    }
+    int limit;
+    try {
+      limit = Integer.parseInt(limitParameter);
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("limit must be a number");
+    }
+    if (limit < 1 || limit > MAX_PAGE_SIZE) {
+      throw new IllegalArgumentException("limit must be between 1 and " + MAX_PAGE_SIZE);
+    }
+    return limit;
+  }
+
+  /** Checks the cursor of the page to start from, or returns null to start from the newest. */
+  private String getCursor(String cursorParameter) {
+    if (cursorParameter == null || cursorParameter.isEmpty()) {
+      return null;
+    }
+    if (!comments.isValidCursor(cursorParameter)) {
+      throw new IllegalArgumentException("Invalid cursor");
+    }
+    return cursorParameter;
   }
   
 }
\ No newline at end of file
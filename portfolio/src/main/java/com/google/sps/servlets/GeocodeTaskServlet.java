@@ -0,0 +1,73 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import com.google.appengine.api.taskqueue.QueueFactory;
+import com.google.appengine.api.taskqueue.RetryOptions;
+import com.google.appengine.api.taskqueue.TaskOptions;
+import com.google.sps.data.PlaceLocator;
+import java.io.IOException;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Task queue handler which geocodes one place query, so the map never waits on the geocoder. A
+ * failed lookup answers with an error, and the queue retries it with its own backoff.
+ */
+@WebServlet("/tasks/geocode")
+public class GeocodeTaskServlet extends HttpServlet {
+  private static final String URL = "/tasks/geocode";
+  // App Engine removes this header from outside requests, so only the task queue can send it.
+  private static final String QUEUE_HEADER = "X-AppEngine-QueueName";
+
+  private PlaceLocator placeLocator;
+
+  @Override
+  public void init() {
+    placeLocator = ServiceRegistry.get(getServletContext()).getPlaceLocator();
+  }
+
+  /** Adds a task to geocode 'query' to the default queue, without waiting for the queue. */
+  static void enqueue(String query) {
+    QueueFactory.getDefaultQueue().addAsync(TaskOptions.Builder.withUrl(URL)
+        .param("query", query)
+        .retryOptions(RetryOptions.Builder.withTaskRetryLimit(5)
+            .minBackoffSeconds(60)
+            .maxBackoffSeconds(60 * 60)));
+  }
+
+  @Override
+  public void doPost(HttpServletRequest request, HttpServletResponse response)
+      throws IOException {
+    if (request.getHeader(QUEUE_HEADER) == null) {
+      response.sendError(HttpServletResponse.SC_FORBIDDEN);
+      return;
+    }
+    String query = request.getParameter("query");
+    if (placeLocator == null || query == null || query.isEmpty()) {
+      // Retrying would not help, so tell the queue the task is done.
+      log("Dropping geocode task for " + query);
+      return;
+    }
+    try {
+      placeLocator.locate(query);
+    } catch (IOException e) {
+      log("Could not geocode " + query, e);
+      response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+    }
+  }
+}
@@ -0,0 +1,140 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import com.google.gson.stream.JsonWriter;
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Helpers for JSON responses which browsers can revalidate with a conditional GET and which are
+ * gzipped when they are large enough for it to pay off.
+ */
+final class HttpCaching {
+  static final String JSON_CONTENT_TYPE = "application/json";
+
+  // Bodies smaller than this fit in a packet or two, so gzipping them saves almost nothing.
+  static final int MIN_GZIP_BYTES = 1024;
+
+  private HttpCaching() {
+    // Disallow instances.
+  }
+
+  /**
+   * Sets the JSON content type and the validators of a response, then checks the request's
+   * {@code If-None-Match} header (or {@code If-Modified-Since}, if there is none) against them. If
+   * the browser's copy is still current, the status is set to 304 and true is returned, and the
+   * caller must not write a body.
+   *
+   * @param etag The quoted entity tag of the current version of the body, or null if the body
+   *     has no version.
+   * @param lastModified The time the body last changed in epoch milliseconds, or 0 if unknown.
+   */
+  static boolean isNotModified(HttpServletRequest request, HttpServletResponse response,
+      String etag, long lastModified) {
+    response.setContentType(JSON_CONTENT_TYPE);
+    response.setCharacterEncoding("UTF-8");
+    // Browsers may keep the body but must check it is still current before every use.
+    response.setHeader("Cache-Control", "no-cache");
+    response.setHeader("Vary", "Accept-Encoding");
+    if (etag != null) {
+      response.setHeader("ETag", etag);
+    }
+    if (lastModified > 0) {
+      response.setDateHeader("Last-Modified", lastModified);
+    }
+
+    boolean notModified;
+    String ifNoneMatch = request.getHeader("If-None-Match");
+    if (ifNoneMatch != null) {
+      notModified = etag != null && matchesAny(ifNoneMatch, etag);
+    } else {
+      // HTTP dates only have a precision of seconds.
+      long ifModifiedSince = request.getDateHeader("If-Modified-Since");
+      notModified = lastModified > 0 && ifModifiedSince >= lastModified / 1000 * 1000;
+    }
+    if (notModified) {
+      response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+    }
+    return notModified;
+  }
+
+  /** Returns whether the browser accepts gzipped responses. */
+  static boolean acceptsGzip(HttpServletRequest request) {
+    String acceptEncoding = request.getHeader("Accept-Encoding");
+    return acceptEncoding != null && acceptEncoding.contains("gzip");
+  }
+
+  /**
+   * Returns the response body stream, gzipped if the browser accepts it. Use this when the size of
+   * the body is not known in advance.
+   */
+  static OutputStream openBody(HttpServletRequest request, HttpServletResponse response)
+      throws IOException {
+    if (!acceptsGzip(request)) {
+      return response.getOutputStream();
+    }
+    response.setHeader("Content-Encoding", "gzip");
+    return new GZIPOutputStream(response.getOutputStream());
+  }
+
+  /**
+   * Returns a JSON writer over the response body, gzipped if the browser accepts it. The caller
+   * must close it when done.
+   */
+  static JsonWriter openJsonWriter(HttpServletRequest request, HttpServletResponse response)
+      throws IOException {
+    return new JsonWriter(new BufferedWriter(
+        new OutputStreamWriter(openBody(request, response), StandardCharsets.UTF_8)));
+  }
+
+  /** Returns 'bytes' compressed with gzip. */
+  static byte[] gzip(byte[] bytes) {
+    ByteArrayOutputStream gzipped = new ByteArrayOutputStream(bytes.length / 4 + 64);
+    try (GZIPOutputStream out = new GZIPOutputStream(gzipped)) {
+      out.write(bytes);
+    } catch (IOException e) {
+      // Writing to memory cannot fail.
+      throw new UncheckedIOException(e);
+    }
+    return gzipped.toByteArray();
+  }
+
+  /** Returns whether an If-None-Match header lists 'etag', ignoring weak validator prefixes. */
+  private static boolean matchesAny(String ifNoneMatch, String etag) {
+    if (ifNoneMatch.trim().equals("*")) {
+      return true;
+    }
+    String bareEtag = stripWeakPrefix(etag);
+    for (String candidate : ifNoneMatch.split(",")) {
+      if (stripWeakPrefix(candidate.trim()).equals(bareEtag)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static String stripWeakPrefix(String etag) {
+    return etag.startsWith("W/") ? etag.substring(2) : etag;
+  }
+}
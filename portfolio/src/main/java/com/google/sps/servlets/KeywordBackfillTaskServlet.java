@@ -0,0 +1,99 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import com.google.appengine.api.taskqueue.QueueFactory;
+import com.google.appengine.api.taskqueue.TaskOptions;
+import com.google.sps.data.CommentRepository;
+import com.google.sps.data.DatastoreCommentRepository;
+import java.io.IOException;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Adds search keywords to comments stored before they were, so search finds every comment. Cron
+ * starts a pass over all comments, and each task checks one batch and queues a task for the next.
+ * Once every comment has keywords, a pass only reads.
+ */
+@WebServlet("/tasks/backfill-keywords")
+public class KeywordBackfillTaskServlet extends HttpServlet {
+  private static final String URL = "/tasks/backfill-keywords";
+  // App Engine removes these headers from outside requests, so only cron and the task queue can
+  // send them.
+  private static final String CRON_HEADER = "X-Appengine-Cron";
+  private static final String QUEUE_HEADER = "X-AppEngine-QueueName";
+  private static final int BATCH_SIZE = 500;
+
+  private DatastoreCommentRepository comments;
+
+  @Override
+  public void init() {
+    CommentRepository repository =
+        ServiceRegistry.get(getServletContext()).getRepositories().comments();
+    // Only Datastore can hold comments which were stored without keywords.
+    if (repository instanceof DatastoreCommentRepository) {
+      comments = (DatastoreCommentRepository) repository;
+    }
+  }
+
+  /** Adds a task to check the batch of comments starting at 'cursor' to the default queue. */
+  private static void enqueue(String cursor) {
+    TaskOptions task = TaskOptions.Builder.withUrl(URL);
+    if (cursor != null) {
+      task.param("cursor", cursor);
+    }
+    QueueFactory.getDefaultQueue().add(task);
+  }
+
+  /** Starts a pass over every comment. Called by cron. */
+  @Override
+  public void doGet(HttpServletRequest request, HttpServletResponse response)
+      throws IOException {
+    if (request.getHeader(CRON_HEADER) == null) {
+      response.sendError(HttpServletResponse.SC_FORBIDDEN);
+      return;
+    }
+    if (comments != null) {
+      enqueue(null);
+    }
+  }
+
+  /** Checks one batch of comments and queues the next. Called by the task queue. */
+  @Override
+  public void doPost(HttpServletRequest request, HttpServletResponse response)
+      throws IOException {
+    if (request.getHeader(QUEUE_HEADER) == null) {
+      response.sendError(HttpServletResponse.SC_FORBIDDEN);
+      return;
+    }
+    if (comments == null) {
+      return;
+    }
+    String cursor = request.getParameter("cursor");
+    String next;
+    try {
+      next = comments.backfillKeywords(cursor, BATCH_SIZE);
+    } catch (IllegalArgumentException e) {
+      // Retrying would not help, so tell the queue the task is done.
+      log("Dropping keyword backfill task with cursor " + cursor, e);
+      return;
+    }
+    if (next != null) {
+      enqueue(next);
+    }
+  }
+}
@@ -14,47 +14,94 @@
 
 package com.google.sps.servlets;
 
-import com.google.appengine.api.datastore.DatastoreService;
-import com.google.appengine.api.datastore.DatastoreServiceFactory;
-import com.google.appengine.api.datastore.Entity;
-import com.google.appengine.api.datastore.PreparedQuery;
-import com.google.appengine.api.datastore.Query;
-import com.google.appengine.api.datastore.Query.SortDirection;
-import com.google.sps.servlets.DataServlet;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonWriter;
 import com.google.sps.data.Place;
-import com.google.gson.Gson;
+import com.google.sps.data.PlaceLocator;
+import com.google.sps.data.PlaceRepository;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.ExecutorService;
 import javax.servlet.annotation.WebServlet;
 import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
-import java.util.ArrayList;
-import java.util.List;
 
 /** Servlet that returns potential queries for the Places API. */
-@WebServlet("/map-data")
+@WebServlet(urlPatterns = "/map-data", asyncSupported = true)
 public class MapServlet extends HttpServlet {
+  private PlaceRepository places;
+  private TypeAdapter<Place> placeAdapter;
+  private PlaceLocator placeLocator;
+  private ExecutorService queryExecutor;
 
   @Override
-  public void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
-    List<Place> places = getPlacesFromDatabase();
-    String json = DataServlet.convertToJson(places);
-    response.setContentType("text/html;");
-    response.getWriter().println(json);
+  public void init() {
+    ServiceRegistry registry = ServiceRegistry.get(getServletContext());
+    queryExecutor = registry.getQueryExecutor();
+    places = registry.getRepositories().places();
+    placeAdapter = registry.getGson().getAdapter(Place.class);
+    placeLocator = registry.getPlaceLocator();
   }
 
-  /** Retrieves and returns a list of place queries from the Datastore database. */
-  private List<Place> getPlacesFromDatabase() {
-    Query query = new Query("Place");
-    DatastoreService datastore = DatastoreServiceFactory.getDatastoreService();
-    PreparedQuery results = datastore.prepare(query);
-
-    List<Place> places = new ArrayList<>();
-    for (Entity entity : results.asIterable()) {
-      String placeQuery = (String) entity.getProperty("query");
-      String comment = (String) entity.getProperty("comment");
-      places.add(new Place(placeQuery, comment));
+  /**
+   * Returns every place query, with its location if it has been geocoded. Places can be edited in
+   * the Datastore console, outside of the app, so the entity tag is a digest of the JSON itself.
+   * The list is short, so it is built in memory to compute the digest before any of it is sent.
+   * The list is read and written asynchronously, off the container thread.
+   */
+  @Override
+  public void doGet(HttpServletRequest request, HttpServletResponse response) {
+    AsyncResponses.respond(request, response, queryExecutor, exchange -> {
+      ByteArrayOutputStream json = new ByteArrayOutputStream();
+      try (JsonWriter writer =
+          new JsonWriter(new OutputStreamWriter(json, StandardCharsets.UTF_8))) {
+        writePlaces(writer);
+      }
+      byte[] body = json.toByteArray();
+
+      if (exchange.isNotModified(getETag(body), 0)) {
+        return;
+      }
+      exchange.writeBody(body, () -> HttpCaching.gzip(body));
+    });
+  }
+
+  /** Returns an entity tag derived from the contents of 'body'. */
+  private static String getETag(byte[] body) {
+    MessageDigest digest;
+    try {
+      digest = MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      // Every Java platform is required to support SHA-256.
+      throw new AssertionError(e);
     }
-    return places;
+    byte[] hash = digest.digest(body);
+    StringBuilder etag = new StringBuilder("\"");
+    // Half of the hash is plenty to tell versions of the same list apart.
+    for (int i = 0; i < hash.length / 2; i++) {
+      etag.append(String.format("%02x", hash[i]));
+    }
+    return etag.append('"').toString();
+  }
+
+  /**
+   * Writes every place query from the repository to 'writer' as a JSON array, scheduling any
+   * place which has not been geocoded yet to be geocoded in the background. Until it is, the
+   * browser looks it up itself.
+   */
+  private void writePlaces(JsonWriter writer) throws IOException {
+    writer.beginArray();
+    places.visitAll(place -> {
+      if (placeLocator != null) {
+        placeLocator.scheduleIfNeeded(place);
+      }
+      placeAdapter.write(writer, place);
+    });
+    writer.endArray();
   }
 }
@@ -0,0 +1,53 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import com.google.sps.data.Comment;
+import com.google.sps.data.WriteBehindQueue;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.concurrent.ThreadPoolExecutor;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Servlet that reports internal metrics as plain text, one "name value" pair per line. Only app
+ * admins may read it; see the security constraint in web.xml.
+ */
+@WebServlet("/metrics")
+public class MetricsServlet extends HttpServlet {
+
+  @Override
+  public void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+    response.setContentType("text/plain;");
+    PrintWriter out = response.getWriter();
+
+    WriteBehindQueue<Comment> queue = DataServlet.getWriteQueue();
+    out.println("comment_write_behind_enabled " + (queue != null ? 1 : 0));
+    if (queue != null) {
+      out.println("comment_write_queue_depth " + queue.getDepth());
+      out.println("comment_write_queue_written " + queue.getWrittenCount());
+      out.println("comment_write_queue_failed_flushes " + queue.getFailedFlushCount());
+      out.println("comment_write_queue_dropped " + queue.getDroppedCount());
+    }
+
+    ThreadPoolExecutor queryExecutor =
+        ServiceRegistry.get(getServletContext()).getQueryExecutor();
+    out.println("query_executor_active " + queryExecutor.getActiveCount());
+    out.println("query_executor_queued " + queryExecutor.getQueue().size());
+  }
+}
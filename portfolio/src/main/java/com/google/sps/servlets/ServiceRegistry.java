@@ -0,0 +1,128 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import com.google.appengine.api.datastore.DatastoreService;
+import com.google.appengine.api.datastore.DatastoreServiceFactory;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.sps.data.Comment;
+import com.google.sps.data.CommentAdapter;
+import com.google.sps.data.Place;
+import com.google.sps.data.PlaceAdapter;
+import com.google.sps.data.PlaceLocator;
+import com.google.sps.data.PlacesApiGeocoder;
+import com.google.sps.data.Repositories;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.servlet.ServletContext;
+import javax.servlet.ServletContextEvent;
+import javax.servlet.ServletContextListener;
+import javax.servlet.annotation.WebListener;
+
+/**
+ * Creates the services every servlet shares when the app starts, and closes them when it stops.
+ * Servlets look the registry up in {@code init} instead of creating a {@code Gson} or
+ * {@code DatastoreService} on every request; both are thread-safe.
+ */
+@WebListener
+public class ServiceRegistry implements ServletContextListener {
+  private static final String ATTRIBUTE = ServiceRegistry.class.getName();
+  // Set to the server key of the Places API to geocode places on the server.
+  private static final String MAPS_API_KEY_PROPERTY = "maps.apiKey";
+
+  // Bounds how many requests query storage at once, and how many more may wait for a turn.
+  private static final int QUERY_THREADS = 8;
+  private static final int QUERY_QUEUE_CAPACITY = 256;
+
+  private DatastoreService datastore;
+  private Gson gson;
+  private Repositories repositories;
+  private PlaceLocator placeLocator;
+  private ThreadPoolExecutor queryExecutor;
+
+  /** Returns the registry of the app which 'context' belongs to. */
+  static ServiceRegistry get(ServletContext context) {
+    return (ServiceRegistry) context.getAttribute(ATTRIBUTE);
+  }
+
+  @Override
+  public void contextInitialized(ServletContextEvent event) {
+    datastore = DatastoreServiceFactory.getDatastoreService();
+    // The adapters skip Gson's reflective field discovery for the types sent on every page load.
+    gson = new GsonBuilder()
+        .registerTypeAdapter(Comment.class, new CommentAdapter())
+        .registerTypeAdapter(Place.class, new PlaceAdapter())
+        .create();
+    try {
+      repositories = Repositories.fromSystemProperties(datastore);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    String mapsApiKey = System.getProperty(MAPS_API_KEY_PROPERTY, "");
+    if (!mapsApiKey.isEmpty()) {
+      placeLocator = new PlaceLocator(repositories.places(), new PlacesApiGeocoder(mapsApiKey),
+          GeocodeTaskServlet::enqueue, System::currentTimeMillis);
+    }
+    AtomicInteger threadCount = new AtomicInteger();
+    queryExecutor = new ThreadPoolExecutor(QUERY_THREADS, QUERY_THREADS, 0, TimeUnit.SECONDS,
+        new ArrayBlockingQueue<>(QUERY_QUEUE_CAPACITY), runnable -> {
+          Thread thread = new Thread(runnable, "query-" + threadCount.incrementAndGet());
+          thread.setDaemon(true);
+          return thread;
+        });
+    event.getServletContext().setAttribute(ATTRIBUTE, this);
+  }
+
+  @Override
+  public void contextDestroyed(ServletContextEvent event) {
+    event.getServletContext().removeAttribute(ATTRIBUTE);
+    queryExecutor.shutdown();
+    try {
+      repositories.close();
+    } catch (IOException e) {
+      event.getServletContext().log("Could not close the repositories", e);
+    }
+  }
+
+  DatastoreService getDatastore() {
+    return datastore;
+  }
+
+  Gson getGson() {
+    return gson;
+  }
+
+  Repositories getRepositories() {
+    return repositories;
+  }
+
+  /**
+   * Returns the bounded executor which runs storage queries for asynchronous requests. It rejects
+   * work when it is full rather than letting requests queue up without limit.
+   */
+  ThreadPoolExecutor getQueryExecutor() {
+    return queryExecutor;
+  }
+
+  /** Returns the locator for places, or null if places are not geocoded on the server. */
+  PlaceLocator getPlaceLocator() {
+    return placeLocator;
+  }
+}
@@ -37,7 +37,10 @@ function loadMap() {
 
 let openWindow = false;
 
-/** Uses the Places API to find a place and place a marker there.*/
+/**
+ * Uses the Places API to find a place the server has not geocoded yet and
+ * place a marker there.
+ */
 function placeMarker(query, comment, map) {
   const request = {
     query: query,
@@ -50,40 +53,55 @@ function placeMarker(query, comment, map) {
     if (status === google.maps.places.PlacesServiceStatus.OK) {
       const location = results[0].geometry.location;
       const latLng = {lat : location.lat(), lng: location.lng()};
-      const marker = new google.maps.Marker({
-        position: latLng,
-        title: results[0].name,
-        visible: true,
-        map: map
-      });
-      const contentString = '<div class="info-window">' +
-            '<h1>' + results[0].name+ '</h1>'+
-            '<p><b>' + results[0].formatted_address + '</b></p>'
-            + '<p>' + comment + '</p>' +
-            '</div>';
-      let infoWindow = new google.maps.InfoWindow({
-        content: contentString,
-        maxWidth: 200
-      });
+      addMarker(latLng, results[0].name, results[0].formatted_address,
+          comment, map);
+    }
+  });
+}
 
-      marker.addListener('click', function() {
-        if (openWindow) {
-          openWindow.close();
-          openWindow = false;
-        }
-        infoWindow.open(map, marker);
-        openWindow = infoWindow;
-      });
+/** Adds a marker with an info window describing the place. */
+function addMarker(latLng, name, address, comment, map) {
+  const marker = new google.maps.Marker({
+    position: latLng,
+    title: name,
+    visible: true,
+    map: map
+  });
+  const contentString = '<div class="info-window">' +
+        '<h1>' + name + '</h1>'+
+        '<p><b>' + address + '</b></p>'
+        + '<p>' + comment + '</p>' +
+        '</div>';
+  let infoWindow = new google.maps.InfoWindow({
+    content: contentString,
+    maxWidth: 200
+  });
+
+  marker.addListener('click', function() {
+    if (openWindow) {
+      openWindow.close();
+      openWindow = false;
     }
+    infoWindow.open(map, marker);
+    openWindow = infoWindow;
   });
 }
 
 /**
- * Fetches the place queries from the Java servlet and places markers.
+ * Fetches the place queries from the Java servlet and places markers. Places
+ * the server has already geocoded are placed right away; the rest are looked
+ * up with the Places API.
  */
 async function loadPlaceQueries(map) {
   const response = await fetch('/map-data');
   const placeData = await response.json();
-  placeData.forEach(place => placeMarker(place.query, place.comment, map));
+  placeData.forEach(place => {
+    if (place.location) {
+      const latLng = {lat: place.location.lat, lng: place.location.lng};
+      addMarker(latLng, place.location.name, place.location.address,
+          place.comment, map);
+    } else {
+      placeMarker(place.query, place.comment, map);
+    }
+  });
 }
-
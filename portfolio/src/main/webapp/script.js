@@ -81,18 +81,47 @@ function loadCommentForm() {
   commentForm.appendChild(form);
 }
 
+/** Number of comments to fetch from the server at a time. */
+const COMMENT_PAGE_SIZE = 20;
+
 /**
- * Fetches the comments from the Java servlet to display.
+ * Fetches the first page of comments from the Java servlet to display.
  */
 async function loadCommentHistory() {
-  const response = await fetch('/data');
-  const commentData = await response.json();
   const comments = document.getElementById('comments-container');
   comments.innerHTML = '';
-  commentData.forEach(comment => {
+  await loadCommentPage(null);
+}
+
+/**
+ * Fetches the page of comments starting at 'cursor' (or the newest comments
+ * if it is null), appends them to the page, and adds a button to fetch the
+ * next page if there is one.
+ */
+async function loadCommentPage(cursor) {
+  let url = '/data?limit=' + COMMENT_PAGE_SIZE;
+  if (cursor) {
+    url += '&cursor=' + encodeURIComponent(cursor);
+  }
+  const response = await fetch(url);
+  const commentPage = await response.json();
+  const comments = document.getElementById('comments-container');
+
+  const oldButton = document.getElementById('load-more-comments');
+  if (oldButton !== null) {
+    oldButton.remove();
+  }
+  commentPage.comments.forEach(comment => {
     comments.appendChild(createCommentDiv(comment))
     comments.appendChild(document.createElement('br'));
   });
+  if (commentPage.nextCursor) {
+    const loadMore = document.createElement('button');
+    loadMore.id = 'load-more-comments';
+    loadMore.innerText = 'Load more comments';
+    loadMore.onclick = () => loadCommentPage(commentPage.nextCursor);
+    comments.appendChild(loadMore);
+  }
 }
 
 
@@ -0,0 +1,128 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.data;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class CommentCacheTest {
+  private static final List<Comment> PAGE =
+      Arrays.asList(new Comment("Ada", "Second", 2000), new Comment("Bob", "First", 1000));
+  private static final byte[] JSON = {'{', '}'};
+  private static final byte[] GZIPPED_JSON = {1, 2, 3};
+
+  private AtomicLong now;
+  private CommentCache cache;
+
+  @Before
+  public void setUp() {
+    now = new AtomicLong(10000);
+    cache = new CommentCache(now::get);
+  }
+
+  @Test
+  public void emptyCacheReturnsNull() {
+    Assert.assertNull(cache.get());
+    Assert.assertNull(cache.getExpired());
+  }
+
+  @Test
+  public void installedSnapshotIsServedUntilItExpires() {
+    CommentCache.Snapshot installed = cache.install(cache.generation(), PAGE, JSON, GZIPPED_JSON);
+
+    Assert.assertSame(installed, cache.get());
+    Assert.assertEquals(2000, installed.getNewestTime());
+    Assert.assertEquals(PAGE, installed.getComments());
+
+    now.addAndGet(CommentCache.MAX_AGE_MILLIS);
+    Assert.assertNull(cache.get());
+    Assert.assertSame(installed, cache.getExpired());
+  }
+
+  @Test
+  public void invalidateDropsSnapshot() {
+    cache.install(cache.generation(), PAGE, JSON, GZIPPED_JSON);
+
+    cache.invalidate();
+
+    Assert.assertNull(cache.get());
+    Assert.assertNull(cache.getExpired());
+  }
+
+  @Test
+  public void loadRacingWithWriteIsServedButNotCached() {
+    long generation = cache.generation();
+    cache.invalidate();
+
+    CommentCache.Snapshot loaded = cache.install(generation, PAGE, JSON, GZIPPED_JSON);
+
+    Assert.assertSame(JSON, loaded.getJson());
+    Assert.assertNull(cache.get());
+  }
+
+  @Test
+  public void laterInstallReplacesSnapshot() {
+    cache.install(cache.generation(), PAGE, JSON, GZIPPED_JSON);
+    CommentCache.Snapshot second =
+        cache.install(cache.generation(), PAGE.subList(1, 2), JSON, GZIPPED_JSON);
+
+    Assert.assertSame(second, cache.get());
+    Assert.assertEquals(1000, cache.get().getNewestTime());
+  }
+
+  @Test
+  public void expiredSnapshotIsRenewedWhenNewestCommentIsUnchanged() {
+    CommentCache.Snapshot installed = cache.install(cache.generation(), PAGE, JSON, GZIPPED_JSON);
+    now.addAndGet(CommentCache.MAX_AGE_MILLIS);
+
+    CommentCache.Snapshot renewed = cache.renew(cache.getExpired(), 2000);
+
+    Assert.assertNotNull(renewed);
+    Assert.assertSame(installed.getJson(), renewed.getJson());
+    Assert.assertSame(installed.getGzippedJson(), renewed.getGzippedJson());
+    Assert.assertSame(renewed, cache.get());
+
+    now.addAndGet(CommentCache.MAX_AGE_MILLIS - 1);
+    Assert.assertSame(renewed, cache.get());
+  }
+
+  @Test
+  public void expiredSnapshotIsNotRenewedAfterNewerComment() {
+    cache.install(cache.generation(), PAGE, JSON, GZIPPED_JSON);
+    now.addAndGet(CommentCache.MAX_AGE_MILLIS);
+
+    Assert.assertNull(cache.renew(cache.getExpired(), 3000));
+    Assert.assertNull(cache.get());
+  }
+
+  @Test
+  public void renewRacingWithWriteIsNotCached() {
+    cache.install(cache.generation(), PAGE, JSON, GZIPPED_JSON);
+    now.addAndGet(CommentCache.MAX_AGE_MILLIS);
+    CommentCache.Snapshot expired = cache.getExpired();
+    cache.invalidate();
+
+    Assert.assertNull(cache.renew(expired, 2000));
+    Assert.assertNull(cache.get());
+  }
+}
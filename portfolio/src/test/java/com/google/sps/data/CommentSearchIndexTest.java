@@ -0,0 +1,108 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.data;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class CommentSearchIndexTest {
+  private final CommentSearchIndex index = new CommentSearchIndex();
+
+  private static List<String> contents(List<Comment> comments) {
+    List<String> contents = new ArrayList<>();
+    for (Comment comment : comments) {
+      contents.add(comment.getContent());
+    }
+    return contents;
+  }
+
+  @Test
+  public void tokenizeSplitsOnPunctuationAndLowerCases() {
+    Assert.assertEquals(Arrays.asList("hello", "world", "2020"),
+        new ArrayList<>(CommentSearchIndex.tokenize("Hello, WORLD! hello... 2020")));
+  }
+
+  @Test
+  public void onlyMatchingCommentsAreFound() {
+    index.add(new Comment("Ada", "I like maps", 1000));
+    index.add(new Comment("Bob", "Nice charts", 2000));
+
+    Assert.assertEquals(Arrays.asList("I like maps"), contents(index.search("Maps!", 10)));
+    Assert.assertTrue(index.search("tables", 10).isEmpty());
+    Assert.assertEquals(2, index.size());
+  }
+
+  @Test
+  public void rareWordsRankAboveCommonOnes() {
+    index.add(new Comment("Ada", "great maps", 1000));
+    index.add(new Comment("Bob", "great charts", 2000));
+    index.add(new Comment("Cy", "great work", 3000));
+
+    // "maps" is in one comment and "great" in all three, so the comment with "maps" wins.
+    List<String> found = contents(index.search("great maps", 10));
+
+    Assert.assertEquals("great maps", found.get(0));
+    Assert.assertEquals(3, found.size());
+  }
+
+  @Test
+  public void nameCountsMoreThanContent() {
+    index.add(new Comment("Someone", "thanks to Ada", 2000));
+    index.add(new Comment("Ada", "thanks", 1000));
+
+    Assert.assertEquals(
+        Arrays.asList("thanks", "thanks to Ada"), contents(index.search("ada", 10)));
+  }
+
+  @Test
+  public void tiesAreBrokenNewestFirst() {
+    index.add(new Comment("Ada", "maps one", 1000));
+    index.add(new Comment("Bob", "maps two", 3000));
+    index.add(new Comment("Cy", "maps three", 2000));
+
+    Assert.assertEquals(Arrays.asList("maps two", "maps three", "maps one"),
+        contents(index.search("maps", 10)));
+  }
+
+  @Test
+  public void limitKeepsTheBestMatches() {
+    index.add(new Comment("Ada", "maps and charts", 1000));
+    index.add(new Comment("Bob", "maps", 2000));
+    index.add(new Comment("Cy", "charts", 3000));
+
+    Assert.assertEquals(Arrays.asList("maps and charts"),
+        contents(index.search("maps charts", 1)));
+  }
+
+  @Test
+  public void largeIdGapsAndWeightsSurviveEncoding() {
+    // Ids past 127 and 16383 need two and three bytes per gap.
+    for (int i = 0; i < 20000; i++) {
+      index.add(new Comment("Ada", i == 200 || i == 19999 ? "needle" : "hay", i));
+    }
+    index.add(new Comment("needle", "needle", 20000));
+
+    Assert.assertEquals(Arrays.asList("needle", "needle", "needle"),
+        contents(index.search("needle", 10)));
+    Assert.assertEquals(20000, index.search("needle", 1).get(0).getTime());
+  }
+}
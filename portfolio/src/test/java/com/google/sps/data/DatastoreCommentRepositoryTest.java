@@ -0,0 +1,114 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.data;
+
+import com.google.appengine.api.datastore.DatastoreService;
+import com.google.appengine.api.datastore.DatastoreServiceFactory;
+import com.google.appengine.api.datastore.Entity;
+import com.google.appengine.api.datastore.Query;
+import com.google.appengine.tools.development.testing.LocalDatastoreServiceTestConfig;
+import com.google.appengine.tools.development.testing.LocalServiceTestHelper;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class DatastoreCommentRepositoryTest {
+  private final LocalServiceTestHelper helper =
+      new LocalServiceTestHelper(new LocalDatastoreServiceTestConfig());
+
+  private DatastoreService datastore;
+  private DatastoreCommentRepository comments;
+
+  @Before
+  public void setUp() {
+    helper.setUp();
+    datastore = DatastoreServiceFactory.getDatastoreService();
+    comments = new DatastoreCommentRepository(datastore);
+  }
+
+  @After
+  public void tearDown() {
+    helper.tearDown();
+  }
+
+  private static List<String> contents(List<Comment> found) {
+    List<String> contents = new ArrayList<>();
+    for (Comment comment : found) {
+      contents.add(comment.getContent());
+    }
+    return contents;
+  }
+
+  /** Stores a comment the way it was stored before comments had keywords. */
+  private void putWithoutKeywords(Comment comment) {
+    Entity entity = new Entity("Comment");
+    entity.setProperty("name", comment.getName());
+    entity.setProperty("content", comment.getContent());
+    entity.setProperty("time", comment.getTime());
+    datastore.put(entity);
+  }
+
+  @Test
+  public void searchRanksLikeTheInMemoryIndex() {
+    comments.addAll(Arrays.asList(new Comment("Ada", "great maps", 1000),
+        new Comment("Bob", "great charts", 2000), new Comment("Cy", "great work", 3000)));
+
+    Assert.assertEquals(Arrays.asList("great maps", "great work", "great charts"),
+        contents(comments.search("great maps", 10)));
+    Assert.assertEquals(Arrays.asList("great maps"), contents(comments.search("great maps", 1)));
+    Assert.assertTrue(comments.search("tables", 10).isEmpty());
+  }
+
+  @Test
+  public void searchSeesEveryMatchNotJustTheNewest() {
+    List<Comment> batch = new ArrayList<>();
+    for (int i = 0; i < 1200; i++) {
+      batch.add(new Comment("Ada", "maps", 10_000 + i));
+    }
+    comments.addAll(batch);
+    // The oldest comment is the only one which also matches the second word.
+    comments.add(new Comment("Bob", "maps and charts", 1));
+
+    List<Comment> found = comments.search("maps charts", 1);
+
+    Assert.assertEquals(Arrays.asList("maps and charts"), contents(found));
+  }
+
+  @Test
+  public void backfillMakesOldCommentsSearchable() {
+    for (int i = 0; i < 5; i++) {
+      putWithoutKeywords(new Comment("Ada", "old maps " + i, i));
+    }
+    comments.add(new Comment("Bob", "new maps", 100));
+    Assert.assertEquals(1, comments.search("maps", 10).size());
+
+    String cursor = comments.backfillKeywords(null, 4);
+    Assert.assertNotNull(cursor);
+    Assert.assertNull(comments.backfillKeywords(cursor, 4));
+
+    Assert.assertEquals(6, comments.search("maps", 10).size());
+    for (Entity entity : datastore.prepare(new Query("Comment")).asIterable()) {
+      Assert.assertTrue(entity.hasProperty("keywords"));
+    }
+  }
+}
@@ -0,0 +1,84 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.data;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class InMemoryCommentRepositoryTest {
+  private final InMemoryCommentRepository comments = new InMemoryCommentRepository();
+
+  /** Returns the contents of one page of comments, newest first, and the next cursor last. */
+  private List<String> page(int limit, String cursor) throws IOException {
+    List<String> contents = new ArrayList<>();
+    String next =
+        comments.visitNewest(limit, cursor, comment -> contents.add(comment.getContent()));
+    contents.add(next);
+    return contents;
+  }
+
+  @Test
+  public void emptyRepositoryHasNoComments() throws IOException {
+    Assert.assertEquals(Arrays.asList((String) null), page(10, null));
+    Assert.assertEquals(0, comments.getNewestTime());
+  }
+
+  @Test
+  public void commentsArePagedNewestFirst() throws IOException {
+    comments.addAll(Arrays.asList(new Comment("Ada", "one", 1000),
+        new Comment("Bob", "two", 2000), new Comment("Cy", "three", 3000)));
+
+    List<String> first = page(2, null);
+    Assert.assertEquals(Arrays.asList("three", "two"), first.subList(0, 2));
+    Assert.assertEquals(Arrays.asList("one", null), page(2, first.get(2)));
+    Assert.assertEquals(3000, comments.getNewestTime());
+  }
+
+  @Test
+  public void commentAddedWhilePagingDoesNotShiftLaterPages() throws IOException {
+    comments.add(new Comment("Ada", "one", 1000));
+    comments.add(new Comment("Bob", "two", 2000));
+
+    List<String> first = page(1, null);
+    comments.add(new Comment("Cy", "three", 3000));
+
+    Assert.assertEquals("one", page(1, first.get(1)).get(0));
+  }
+
+  @Test
+  public void commentIsSearchableOnceAdded() throws IOException {
+    comments.add(new Comment("Ada", "I like maps", 1000));
+
+    List<Comment> found = comments.search("maps", 10);
+
+    Assert.assertEquals(1, found.size());
+    Assert.assertEquals("Ada", found.get(0).getName());
+  }
+
+  @Test
+  public void cursorsAreChecked() {
+    Assert.assertTrue(comments.isValidCursor("5"));
+    Assert.assertFalse(comments.isValidCursor("-1"));
+    Assert.assertFalse(comments.isValidCursor("abc"));
+  }
+}
@@ -0,0 +1,79 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.data;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class InMemoryPlaceRepositoryTest {
+  private static final Location PROSPECT_PARK =
+      new Location("Prospect Park", "Brooklyn, NY, USA", 40.66, -73.97);
+
+  private final InMemoryPlaceRepository places = new InMemoryPlaceRepository();
+
+  private List<Place> readAll() throws IOException {
+    List<Place> read = new ArrayList<>();
+    places.visitAll(read::add);
+    return read;
+  }
+
+  @Test
+  public void placesAreVisitedInOrderAdded() throws IOException {
+    places.add(new Place("Prospect Park", "Nice in the summer"));
+    places.add(new Place("Central Park", ""));
+
+    List<Place> read = readAll();
+
+    Assert.assertEquals(2, read.size());
+    Assert.assertEquals("Prospect Park", read.get(0).getQuery());
+    Assert.assertEquals("Central Park", read.get(1).getQuery());
+  }
+
+  @Test
+  public void locationIsSetOnEveryPlaceWithTheQuery() throws IOException {
+    places.add(new Place("Prospect Park", "first"));
+    places.add(new Place("Central Park", ""));
+    places.add(new Place("Prospect Park", "second"));
+
+    places.setLocation("Prospect Park", PROSPECT_PARK);
+
+    List<Place> read = readAll();
+    Assert.assertSame(PROSPECT_PARK, read.get(0).getLocation());
+    Assert.assertNull(read.get(1).getLocation());
+    Assert.assertSame(PROSPECT_PARK, read.get(2).getLocation());
+    Assert.assertEquals("second", read.get(2).getComment());
+  }
+
+  @Test
+  public void visitSeesTheListAsItWasWhenItStarted() throws IOException {
+    places.add(new Place("Prospect Park", ""));
+
+    List<Place> read = new ArrayList<>();
+    places.visitAll(place -> {
+      read.add(place);
+      places.add(new Place("Central Park", ""));
+    });
+
+    Assert.assertEquals(1, read.size());
+    Assert.assertEquals(2, readAll().size());
+  }
+}
@@ -0,0 +1,100 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.data;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class LogFilePlaceRepositoryTest {
+  private static final Location PROSPECT_PARK =
+      new Location("Prospect Park", "Brooklyn, NY, USA", 40.66, -73.97);
+
+  @Rule public TemporaryFolder folder = new TemporaryFolder();
+
+  private Path file;
+  private MappedRecordLog log;
+  private LogFilePlaceRepository places;
+
+  @Before
+  public void setUp() throws IOException {
+    file = folder.getRoot().toPath().resolve("places.log");
+    log = new MappedRecordLog(file);
+    places = new LogFilePlaceRepository(log);
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    log.close();
+  }
+
+  private List<Place> readAll() throws IOException {
+    List<Place> read = new ArrayList<>();
+    places.visitAll(read::add);
+    return read;
+  }
+
+  @Test
+  public void placesAreVisitedInOrderAdded() throws IOException {
+    places.add(new Place("Prospect Park", "Nice in the summer"));
+    places.add(new Place("Central Park", null));
+
+    List<Place> read = readAll();
+
+    Assert.assertEquals(2, read.size());
+    Assert.assertEquals("Prospect Park", read.get(0).getQuery());
+    Assert.assertEquals("Nice in the summer", read.get(0).getComment());
+    Assert.assertNull(read.get(0).getLocation());
+    Assert.assertNull(read.get(1).getComment());
+  }
+
+  @Test
+  public void laterLocationReplacesEarlierOne() throws IOException {
+    places.add(new Place("Prospect Park", "", new Location("Old", "Somewhere", 1, 2)));
+    places.setLocation("Prospect Park", PROSPECT_PARK);
+
+    Location location = readAll().get(0).getLocation();
+
+    Assert.assertEquals("Prospect Park", location.getName());
+    Assert.assertEquals("Brooklyn, NY, USA", location.getAddress());
+    Assert.assertEquals(40.66, location.getLat(), 0);
+    Assert.assertEquals(-73.97, location.getLng(), 0);
+  }
+
+  @Test
+  public void placesAndLocationsSurviveReopening() throws IOException {
+    places.add(new Place("Prospect Park", ""));
+    places.setLocation("Prospect Park", PROSPECT_PARK);
+    log.close();
+
+    log = new MappedRecordLog(file);
+    places = new LogFilePlaceRepository(log);
+
+    List<Place> read = readAll();
+    Assert.assertEquals(1, read.size());
+    Assert.assertEquals("Prospect Park", read.get(0).getLocation().getName());
+  }
+}
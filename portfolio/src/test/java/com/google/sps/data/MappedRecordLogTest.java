@@ -0,0 +1,139 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.data;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class MappedRecordLogTest {
+  @Rule public TemporaryFolder folder = new TemporaryFolder();
+
+  private Path file;
+  private MappedRecordLog log;
+
+  @Before
+  public void setUp() throws IOException {
+    file = folder.getRoot().toPath().resolve("records.log");
+    log = new MappedRecordLog(file);
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    log.close();
+  }
+
+  private static byte[] bytes(String s) {
+    return s.getBytes(StandardCharsets.UTF_8);
+  }
+
+  private static String string(ByteBuffer record) {
+    byte[] bytes = new byte[record.remaining()];
+    record.get(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  @Test
+  public void newLogIsEmpty() {
+    Assert.assertEquals(0, log.size());
+  }
+
+  @Test
+  public void recordsAreNumberedInAppendOrder() throws IOException {
+    Assert.assertEquals(0, log.append(bytes("first")));
+    Assert.assertEquals(1, log.append(bytes("second")));
+
+    Assert.assertEquals(2, log.size());
+    Assert.assertEquals("first", string(log.read(0)));
+    Assert.assertEquals("second", string(log.read(1)));
+  }
+
+  @Test
+  public void recordsAreReadOnly() throws IOException {
+    log.append(bytes("record"));
+
+    Assert.assertTrue(log.read(0).isReadOnly());
+  }
+
+  @Test
+  public void reopenedLogHasEveryRecord() throws IOException {
+    log.append(bytes("first"));
+    log.append(bytes("second"));
+    log.close();
+
+    log = new MappedRecordLog(file);
+
+    Assert.assertEquals(2, log.size());
+    Assert.assertEquals("second", string(log.read(1)));
+    Assert.assertEquals(2, log.append(bytes("third")));
+  }
+
+  @Test
+  public void logGrowsPastItsFirstMapping() throws IOException {
+    byte[] record = new byte[64 * 1024];
+    for (int i = 0; i < 40; i++) {
+      record[0] = (byte) i;
+      log.append(record);
+    }
+    log.close();
+
+    log = new MappedRecordLog(file);
+
+    Assert.assertEquals(40, log.size());
+    for (int i = 0; i < 40; i++) {
+      ByteBuffer read = log.read(i);
+      Assert.assertEquals(record.length, read.remaining());
+      Assert.assertEquals((byte) i, read.get(0));
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void emptyRecordIsRejected() throws IOException {
+    log.append(new byte[0]);
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void readingPastTheEndFails() throws IOException {
+    log.append(bytes("record"));
+
+    log.read(1);
+  }
+
+  @Test
+  public void stringsRoundTrip() {
+    ByteBuffer buffer = ByteBuffer.allocate(MappedRecordLog.stringSize("héllo")
+        + MappedRecordLog.stringSize(null) + MappedRecordLog.stringSize(""));
+    MappedRecordLog.putString(buffer, "héllo");
+    MappedRecordLog.putString(buffer, null);
+    MappedRecordLog.putString(buffer, "");
+    Assert.assertFalse(buffer.hasRemaining());
+
+    buffer.flip();
+    Assert.assertEquals("héllo", MappedRecordLog.getString(buffer));
+    Assert.assertNull(MappedRecordLog.getString(buffer));
+    Assert.assertEquals("", MappedRecordLog.getString(buffer));
+  }
+}
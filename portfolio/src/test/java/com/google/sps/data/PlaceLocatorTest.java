@@ -0,0 +1,103 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.data;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class PlaceLocatorTest {
+  private static final String QUERY = "Prospect Park, Brooklyn";
+  private static final Location PROSPECT_PARK =
+      new Location("Prospect Park", "Brooklyn, NY, USA", 40.66, -73.97);
+
+  private InMemoryPlaceRepository places;
+  private FakeGeocoder geocoder;
+  private List<String> scheduled;
+  private AtomicLong now;
+  private PlaceLocator locator;
+
+  @Before
+  public void setUp() {
+    places = new InMemoryPlaceRepository();
+    geocoder = new FakeGeocoder();
+    scheduled = new ArrayList<>();
+    now = new AtomicLong(1000);
+    locator = new PlaceLocator(places, geocoder, scheduled::add, now::get);
+  }
+
+  @Test
+  public void schedulingNeverGeocodes() {
+    locator.scheduleIfNeeded(new Place(QUERY, "", null));
+
+    Assert.assertEquals(Arrays.asList(QUERY), scheduled);
+    Assert.assertEquals(0, geocoder.getLookupCount());
+  }
+
+  @Test
+  public void locatedPlacesAreNotScheduled() {
+    boolean actual = locator.scheduleIfNeeded(new Place(QUERY, "", PROSPECT_PARK));
+
+    Assert.assertFalse(actual);
+    Assert.assertTrue(scheduled.isEmpty());
+  }
+
+  @Test
+  public void unmatchedQueryIsRescheduledWithBackoff() throws IOException {
+    Place place = new Place(QUERY, "", null);
+    locator.scheduleIfNeeded(place);
+    Assert.assertFalse(locator.locate(QUERY));
+
+    // Every map load sees the place without a location, but only the first schedules it.
+    locator.scheduleIfNeeded(place);
+    now.addAndGet(PlaceLocator.INITIAL_BACKOFF_MILLIS - 1);
+    locator.scheduleIfNeeded(place);
+    Assert.assertEquals(1, scheduled.size());
+
+    now.addAndGet(1);
+    Assert.assertTrue(locator.scheduleIfNeeded(place));
+    // The next attempt waits twice as long.
+    now.addAndGet(2 * PlaceLocator.INITIAL_BACKOFF_MILLIS - 1);
+    Assert.assertFalse(locator.scheduleIfNeeded(place));
+    now.addAndGet(1);
+    Assert.assertTrue(locator.scheduleIfNeeded(place));
+
+    Assert.assertEquals(3, scheduled.size());
+    Assert.assertEquals(1, geocoder.getLookupCount());
+  }
+
+  @Test
+  public void locateStoresTheLocation() throws IOException {
+    places.add(new Place(QUERY, "", null));
+    geocoder.put(QUERY, PROSPECT_PARK);
+
+    Assert.assertTrue(locator.locate(QUERY));
+
+    List<Place> actual = new ArrayList<>();
+    places.visitAll(actual::add);
+    Assert.assertEquals(1, actual.size());
+    Assert.assertSame(PROSPECT_PARK, actual.get(0).getLocation());
+    Assert.assertEquals(1, geocoder.getLookupCount());
+  }
+}
@@ -0,0 +1,54 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.data;
+
+import com.google.gson.JsonParser;
+import java.io.IOException;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class PlacesApiGeocoderTest {
+
+  @Test(expected = IOException.class)
+  public void responseWithoutStatusIsAnError() throws IOException {
+    PlacesApiGeocoder.parseResponse(JsonParser.parseString("{}").getAsJsonObject());
+  }
+
+  @Test
+  public void zeroResultsIsNoMatch() throws IOException {
+    Location actual = PlacesApiGeocoder.parseResponse(
+        JsonParser.parseString("{\"status\": \"ZERO_RESULTS\"}").getAsJsonObject());
+
+    Assert.assertNull(actual);
+  }
+
+  @Test
+  public void firstCandidateIsTheMatch() throws IOException {
+    Location actual = PlacesApiGeocoder.parseResponse(JsonParser.parseString(
+        "{\"status\": \"OK\", \"candidates\": [{\"name\": \"Prospect Park\","
+            + " \"formatted_address\": \"Brooklyn, NY, USA\","
+            + " \"geometry\": {\"location\": {\"lat\": 40.66, \"lng\": -73.97}}}]}")
+        .getAsJsonObject());
+
+    Assert.assertEquals("Prospect Park", actual.getName());
+    Assert.assertEquals("Brooklyn, NY, USA", actual.getAddress());
+    Assert.assertEquals(40.66, actual.getLat(), 0);
+    Assert.assertEquals(-73.97, actual.getLng(), 0);
+  }
+}
@@ -0,0 +1,239 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.data;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class WriteBehindQueueTest {
+  // Long enough that the background thread never flushes on its own during a test.
+  private static final long NEVER = TimeUnit.HOURS.toMillis(1);
+
+  private List<List<Integer>> batches;
+  private AtomicBoolean failing;
+  private AtomicInteger attempts;
+  private AtomicInteger flushes;
+  private AtomicLong now;
+  private WriteBehindQueue<Integer> queue;
+
+  @Before
+  public void setUp() {
+    batches = Collections.synchronizedList(new ArrayList<>());
+    failing = new AtomicBoolean();
+    attempts = new AtomicInteger();
+    flushes = new AtomicInteger();
+    now = new AtomicLong(1000);
+  }
+
+  @After
+  public void tearDown() throws InterruptedException {
+    if (queue != null) {
+      queue.shutdown();
+    }
+  }
+
+  private WriteBehindQueue<Integer> newQueue(int capacity, int batchSize) {
+    return new WriteBehindQueue<>(batch -> {
+      attempts.incrementAndGet();
+      if (failing.get()) {
+        throw new IllegalStateException("storage is down");
+      }
+      batches.add(new ArrayList<>(batch));
+    }, capacity, batchSize, NEVER, flushes::incrementAndGet, now::get);
+  }
+
+  @Test
+  public void flushWritesInBatches() {
+    queue = newQueue(100, 2);
+    for (int i = 0; i < 5; i++) {
+      queue.add(i);
+    }
+    // Size-triggered flushes may run on the background thread too; this one writes the rest.
+    queue.flush();
+
+    List<Integer> written = new ArrayList<>();
+    for (List<Integer> batch : batches) {
+      Assert.assertTrue(batch.size() <= 2);
+      written.addAll(batch);
+    }
+    Assert.assertEquals(Arrays.asList(0, 1, 2, 3, 4), written);
+    Assert.assertEquals(5, queue.getWrittenCount());
+    Assert.assertEquals(batches.size(), flushes.get());
+    Assert.assertEquals(0, queue.getDepth());
+  }
+
+  @Test
+  public void fullBatchIsWrittenWithoutWaitingForTheInterval() throws InterruptedException {
+    CountDownLatch written = new CountDownLatch(1);
+    queue = new WriteBehindQueue<>(
+        batch -> written.countDown(), 100, 3, NEVER, () -> {}, now::get);
+
+    queue.add(1);
+    queue.add(2);
+    queue.add(3);
+
+    Assert.assertTrue(written.await(5, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void fullQueueRefusesItems() {
+    queue = newQueue(2, 10);
+
+    Assert.assertTrue(queue.add(1));
+    Assert.assertTrue(queue.add(2));
+    Assert.assertFalse(queue.add(3));
+  }
+
+  @Test
+  public void failedBatchIsRetriedAfterBackoff() {
+    queue = newQueue(100, 10);
+    queue.add(1);
+    failing.set(true);
+
+    queue.flush();
+    Assert.assertEquals(1, attempts.get());
+    Assert.assertEquals(1, queue.getFailedFlushCount());
+
+    // Flushes during the backoff don't retry the batch.
+    now.addAndGet(WriteBehindQueue.INITIAL_BACKOFF_MILLIS - 1);
+    queue.flush();
+    Assert.assertEquals(1, attempts.get());
+
+    failing.set(false);
+    now.addAndGet(1);
+    queue.flush();
+    Assert.assertEquals(2, attempts.get());
+    Assert.assertEquals(Arrays.asList(Arrays.asList(1)), batches);
+    Assert.assertEquals(1, queue.getWrittenCount());
+  }
+
+  @Test
+  public void backoffDoublesUpToTheMaximum() {
+    queue = newQueue(100, 10);
+    queue.add(1);
+    failing.set(true);
+
+    queue.flush();
+    now.addAndGet(WriteBehindQueue.INITIAL_BACKOFF_MILLIS);
+    queue.flush();
+    Assert.assertEquals(2, attempts.get());
+
+    // The second failure waits twice as long.
+    now.addAndGet(WriteBehindQueue.INITIAL_BACKOFF_MILLIS);
+    queue.flush();
+    Assert.assertEquals(2, attempts.get());
+    now.addAndGet(WriteBehindQueue.INITIAL_BACKOFF_MILLIS);
+    queue.flush();
+    Assert.assertEquals(3, attempts.get());
+  }
+
+  @Test
+  public void badBatchIsDroppedAfterMaxAttempts() {
+    AtomicInteger badAttempts = new AtomicInteger();
+    queue = new WriteBehindQueue<>(batch -> {
+      if (batch.contains(-1)) {
+        badAttempts.incrementAndGet();
+        throw new IllegalArgumentException("bad item");
+      }
+      batches.add(new ArrayList<>(batch));
+    }, 100, 1, NEVER, () -> {}, now::get);
+    queue.add(-1);
+    queue.add(2);
+
+    for (int i = 0; i < 2 * WriteBehindQueue.MAX_ATTEMPTS && queue.getDroppedCount() == 0; i++) {
+      queue.flush();
+      now.addAndGet(WriteBehindQueue.MAX_BACKOFF_MILLIS);
+    }
+    queue.flush();
+
+    // Once the bad batch is dropped, the batch behind it is written.
+    Assert.assertEquals(1, queue.getDroppedCount());
+    Assert.assertEquals(WriteBehindQueue.MAX_ATTEMPTS, badAttempts.get());
+    Assert.assertEquals(Arrays.asList(Arrays.asList(2)), batches);
+  }
+
+  @Test
+  public void shutdownWritesEverythingQueued() throws InterruptedException {
+    queue = newQueue(100, 2);
+    for (int i = 0; i < 5; i++) {
+      queue.add(i);
+    }
+
+    Assert.assertEquals(0, queue.shutdown());
+    Assert.assertEquals(5, queue.getWrittenCount());
+    Assert.assertFalse(queue.add(5));
+  }
+
+  @Test
+  public void shutdownMakesOneAttemptDuringBackoff() throws InterruptedException {
+    queue = newQueue(100, 10);
+    for (int i = 0; i < 3; i++) {
+      queue.add(i);
+    }
+    failing.set(true);
+    queue.flush();
+    Assert.assertEquals(1, attempts.get());
+
+    // Storage stays down, so the batch is lost without waiting for its backoff.
+    Assert.assertEquals(3, queue.shutdown());
+    Assert.assertEquals(2, attempts.get());
+    Assert.assertEquals(0, queue.getWrittenCount());
+  }
+
+  @Test
+  public void everyAcceptedItemIsWrittenWhenAddsRaceWithShutdown() throws Exception {
+    queue = newQueue(100_000, 50);
+    AtomicInteger accepted = new AtomicInteger();
+    CountDownLatch started = new CountDownLatch(4);
+    List<Thread> adders = new ArrayList<>();
+    for (int t = 0; t < 4; t++) {
+      Thread adder = new Thread(() -> {
+        started.countDown();
+        for (int i = 0; i < 10_000; i++) {
+          if (queue.add(i)) {
+            accepted.incrementAndGet();
+          }
+        }
+      });
+      adder.start();
+      adders.add(adder);
+    }
+    started.await();
+
+    int lost = queue.shutdown();
+    for (Thread adder : adders) {
+      adder.join();
+    }
+
+    Assert.assertEquals(0, lost);
+    Assert.assertEquals(accepted.get(), queue.getWrittenCount());
+    Assert.assertEquals(0, queue.getDepth());
+  }
+}
@@ -0,0 +1,249 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+import javax.servlet.http.HttpServletResponse;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class AsyncResponsesTest {
+  private ServletFakes.Request request;
+  private ServletFakes.Response response;
+  private ExecutorService executor;
+
+  @Before
+  public void setUp() {
+    request = new ServletFakes.Request();
+    response = new ServletFakes.Response();
+    executor = Executors.newSingleThreadExecutor();
+  }
+
+  @After
+  public void tearDown() throws InterruptedException {
+    executor.shutdownNow();
+    executor.awaitTermination(5, TimeUnit.SECONDS);
+  }
+
+  private void respond(AsyncResponses.Responder responder) {
+    AsyncResponses.respond(request.proxy(), response.proxy(), executor, responder);
+  }
+
+  @Test
+  public void writesBodyAndCompletesOnce() throws Exception {
+    byte[] body = "[]".getBytes(StandardCharsets.UTF_8);
+
+    respond(exchange -> exchange.writeBody(body, () -> HttpCaching.gzip(body)));
+
+    Assert.assertTrue(request.async.awaitCompletion());
+    Assert.assertArrayEquals(body, response.out.toByteArray());
+    Assert.assertEquals(body.length, response.contentLength);
+    Assert.assertNull(response.getHeader("Content-Encoding"));
+    Assert.assertEquals(1, request.async.getCompletions());
+  }
+
+  @Test
+  public void completesWithoutBodyWhenNotModified() throws Exception {
+    request.headers.put("If-None-Match", "\"v1\"");
+
+    respond(exchange -> Assert.assertTrue(exchange.isNotModified("\"v1\"", 0)));
+
+    Assert.assertTrue(request.async.awaitCompletion());
+    Assert.assertEquals(HttpServletResponse.SC_NOT_MODIFIED, response.getStatus());
+    Assert.assertEquals(0, response.out.size());
+  }
+
+  @Test
+  public void gzipsBodiesFromTheThreshold() throws Exception {
+    request.headers.put("Accept-Encoding", "gzip, deflate");
+    byte[] body = new byte[HttpCaching.MIN_GZIP_BYTES];
+    Arrays.fill(body, (byte) 'a');
+
+    respond(exchange -> exchange.writeBody(body, () -> HttpCaching.gzip(body)));
+
+    Assert.assertTrue(request.async.awaitCompletion());
+    Assert.assertEquals("gzip", response.getHeader("Content-Encoding"));
+    Assert.assertArrayEquals(body, gunzip(response.out.toByteArray()));
+    Assert.assertEquals(response.out.size(), response.contentLength);
+  }
+
+  @Test
+  public void doesNotGzipBodiesBelowTheThreshold() throws Exception {
+    request.headers.put("Accept-Encoding", "gzip");
+    byte[] body = new byte[HttpCaching.MIN_GZIP_BYTES - 1];
+
+    respond(exchange -> exchange.writeBody(body, () -> HttpCaching.gzip(body)));
+
+    Assert.assertTrue(request.async.awaitCompletion());
+    Assert.assertNull(response.getHeader("Content-Encoding"));
+    Assert.assertArrayEquals(body, response.out.toByteArray());
+  }
+
+  @Test
+  public void producerWaitsForSlowClient() throws Exception {
+    response.out.setReady(false);
+    int chunkCount = AsyncResponses.MAX_PENDING_CHUNKS * 3;
+    AtomicInteger chunksWritten = new AtomicInteger();
+
+    respond(exchange -> {
+      try (OutputStream out = exchange.openBody()) {
+        byte[] chunk = new byte[AsyncResponses.CHUNK_BYTES];
+        for (int i = 0; i < chunkCount; i++) {
+          Arrays.fill(chunk, (byte) i);
+          out.write(chunk);
+          chunksWritten.incrementAndGet();
+        }
+      }
+    });
+
+    // Each write queues the chunk before it, so the producer stops one write past a full queue.
+    int limit = AsyncResponses.MAX_PENDING_CHUNKS + 1;
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (chunksWritten.get() < limit && System.nanoTime() < deadline) {
+      Thread.sleep(10);
+    }
+    Thread.sleep(100);
+    Assert.assertEquals(limit, chunksWritten.get());
+    Assert.assertEquals(0, response.out.size());
+
+    response.out.setReady(true);
+
+    Assert.assertTrue(request.async.awaitCompletion());
+    Assert.assertEquals(chunkCount, chunksWritten.get());
+    byte[] written = response.out.toByteArray();
+    Assert.assertEquals(chunkCount * AsyncResponses.CHUNK_BYTES, written.length);
+    for (int i = 0; i < chunkCount; i++) {
+      Assert.assertEquals((byte) i, written[i * AsyncResponses.CHUNK_BYTES]);
+    }
+  }
+
+  @Test
+  public void timeoutCancelsTheProducerAndAnswers503() throws Exception {
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch interrupted = new CountDownLatch(1);
+    AtomicInteger writeFailures = new AtomicInteger();
+
+    respond(exchange -> {
+      started.countDown();
+      try {
+        Thread.sleep(TimeUnit.MINUTES.toMillis(1));
+      } catch (InterruptedException e) {
+        interrupted.countDown();
+      }
+      try {
+        exchange.writeBody(new byte[1], () -> new byte[1]);
+      } catch (IOException e) {
+        writeFailures.incrementAndGet();
+        throw e;
+      }
+    });
+    Assert.assertTrue(started.await(5, TimeUnit.SECONDS));
+
+    request.async.listener().onTimeout(ServletFakes.event(request.async));
+
+    Assert.assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+    Assert.assertTrue(request.async.awaitCompletion());
+    Assert.assertEquals(HttpServletResponse.SC_SERVICE_UNAVAILABLE, response.getStatus());
+    Assert.assertEquals(String.valueOf(AsyncResponses.RETRY_AFTER_SECONDS),
+        response.getHeader("Retry-After"));
+    // The producer can no longer touch the response once it is completed.
+    executor.shutdown();
+    Assert.assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+    Assert.assertEquals(1, writeFailures.get());
+    Assert.assertEquals(0, response.out.size());
+    Assert.assertEquals(HttpServletResponse.SC_SERVICE_UNAVAILABLE, response.getStatus());
+    Assert.assertEquals(1, request.async.getCompletions());
+  }
+
+  @Test
+  public void timeoutWakesProducerWaitingForSlowClient() throws Exception {
+    response.out.setReady(false);
+    CountDownLatch failed = new CountDownLatch(1);
+
+    respond(exchange -> {
+      try (OutputStream out = exchange.openBody()) {
+        byte[] chunk = new byte[AsyncResponses.CHUNK_BYTES];
+        while (true) {
+          out.write(chunk);
+        }
+      } catch (IOException e) {
+        failed.countDown();
+        throw e;
+      }
+    });
+    // Give the producer time to fill the queue and start waiting.
+    Thread.sleep(100);
+
+    request.async.listener().onTimeout(ServletFakes.event(request.async));
+
+    Assert.assertTrue(failed.await(5, TimeUnit.SECONDS));
+    Assert.assertTrue(request.async.awaitCompletion());
+    Assert.assertEquals(HttpServletResponse.SC_SERVICE_UNAVAILABLE, response.getStatus());
+    Assert.assertEquals(0, response.out.size());
+  }
+
+  @Test
+  public void fullExecutorAnswers503() throws Exception {
+    executor.shutdown();
+
+    respond(exchange -> Assert.fail("A rejected request must not run"));
+
+    Assert.assertTrue(request.async.awaitCompletion());
+    Assert.assertEquals(HttpServletResponse.SC_SERVICE_UNAVAILABLE, response.getStatus());
+    Assert.assertEquals(String.valueOf(AsyncResponses.RETRY_AFTER_SECONDS),
+        response.getHeader("Retry-After"));
+  }
+
+  @Test
+  public void failingResponderAnswers500() throws Exception {
+    respond(exchange -> {
+      throw new IllegalStateException("No comments for you");
+    });
+
+    Assert.assertTrue(request.async.awaitCompletion());
+    Assert.assertEquals(HttpServletResponse.SC_INTERNAL_SERVER_ERROR, response.getStatus());
+    Assert.assertEquals(1, request.async.getCompletions());
+  }
+
+  private static byte[] gunzip(byte[] gzipped) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(gzipped))) {
+      byte[] buffer = new byte[4096];
+      int count;
+      while ((count = in.read(buffer)) != -1) {
+        out.write(buffer, 0, count);
+      }
+    }
+    return out.toByteArray();
+  }
+}
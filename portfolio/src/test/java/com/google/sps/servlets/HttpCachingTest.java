@@ -0,0 +1,138 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+import javax.servlet.http.HttpServletResponse;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class HttpCachingTest {
+  private static final String ETAG = "\"abc123\"";
+  // Half a second past a whole second, which an HTTP date cannot express.
+  private static final long LAST_MODIFIED = 1_600_000_000_500L;
+
+  private ServletFakes.Request request;
+  private ServletFakes.Response response;
+
+  @Before
+  public void setUp() {
+    request = new ServletFakes.Request();
+    response = new ServletFakes.Response();
+  }
+
+  private boolean isNotModified(String etag, long lastModified) {
+    return HttpCaching.isNotModified(request.proxy(), response.proxy(), etag, lastModified);
+  }
+
+  @Test
+  public void setsValidatorsWithoutConditionalHeaders() {
+    Assert.assertFalse(isNotModified(ETAG, LAST_MODIFIED));
+
+    Assert.assertEquals(HttpServletResponse.SC_OK, response.getStatus());
+    Assert.assertEquals(HttpCaching.JSON_CONTENT_TYPE, response.contentType);
+    Assert.assertEquals(ETAG, response.getHeader("ETag"));
+    Assert.assertEquals(String.valueOf(LAST_MODIFIED), response.getHeader("Last-Modified"));
+    Assert.assertEquals("no-cache", response.getHeader("Cache-Control"));
+    Assert.assertEquals("Accept-Encoding", response.getHeader("Vary"));
+  }
+
+  @Test
+  public void matchingEtagIsNotModified() {
+    request.headers.put("If-None-Match", ETAG);
+
+    Assert.assertTrue(isNotModified(ETAG, LAST_MODIFIED));
+    Assert.assertEquals(HttpServletResponse.SC_NOT_MODIFIED, response.getStatus());
+  }
+
+  @Test
+  public void etagMatchesWeakValidatorsListsAndWildcard() {
+    request.headers.put("If-None-Match", "\"other\", W/" + ETAG);
+    Assert.assertTrue(isNotModified(ETAG, 0));
+
+    request.headers.put("If-None-Match", "*");
+    Assert.assertTrue(isNotModified(ETAG, 0));
+  }
+
+  @Test
+  public void differentEtagIsModifiedEvenIfDateIsCurrent() {
+    request.headers.put("If-None-Match", "\"other\"");
+    request.dateHeaders.put("If-Modified-Since", LAST_MODIFIED);
+
+    Assert.assertFalse(isNotModified(ETAG, LAST_MODIFIED));
+    Assert.assertEquals(HttpServletResponse.SC_OK, response.getStatus());
+  }
+
+  @Test
+  public void nullEtagNeverMatches() {
+    request.headers.put("If-None-Match", "\"abc123\"");
+
+    Assert.assertFalse(isNotModified(null, 0));
+    Assert.assertNull(response.getHeader("ETag"));
+  }
+
+  @Test
+  public void ifModifiedSinceComparesWholeSeconds() {
+    request.dateHeaders.put("If-Modified-Since", LAST_MODIFIED / 1000 * 1000);
+    Assert.assertTrue(isNotModified(null, LAST_MODIFIED));
+
+    request.dateHeaders.put("If-Modified-Since", LAST_MODIFIED - 1000);
+    response = new ServletFakes.Response();
+    Assert.assertFalse(isNotModified(null, LAST_MODIFIED));
+  }
+
+  @Test
+  public void unknownLastModifiedIsModified() {
+    request.dateHeaders.put("If-Modified-Since", LAST_MODIFIED);
+
+    Assert.assertFalse(isNotModified(null, 0));
+    Assert.assertNull(response.getHeader("Last-Modified"));
+  }
+
+  @Test
+  public void acceptsGzip() {
+    Assert.assertFalse(HttpCaching.acceptsGzip(request.proxy()));
+
+    request.headers.put("Accept-Encoding", "deflate, br");
+    Assert.assertFalse(HttpCaching.acceptsGzip(request.proxy()));
+
+    request.headers.put("Accept-Encoding", "gzip, deflate, br");
+    Assert.assertTrue(HttpCaching.acceptsGzip(request.proxy()));
+  }
+
+  @Test
+  public void gzipRoundTrips() throws IOException {
+    byte[] body = "{\"comments\": []}".getBytes(StandardCharsets.UTF_8);
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(HttpCaching.gzip(body)))) {
+      int b;
+      while ((b = in.read()) != -1) {
+        out.write(b);
+      }
+    }
+    Assert.assertArrayEquals(body, out.toByteArray());
+  }
+}
@@ -0,0 +1,263 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Hand-written stand-ins for the parts of the servlet API the response helpers use. Anything
+ * else they are asked for answers null, zero or false.
+ */
+final class ServletFakes {
+  private ServletFakes() {
+    // Disallow instances.
+  }
+
+  /** A request with the given headers, which starts 'async' when put into asynchronous mode. */
+  static final class Request {
+    final Map<String, String> headers = new HashMap<>();
+    final Map<String, Long> dateHeaders = new HashMap<>();
+    final Async async = new Async();
+
+    HttpServletRequest proxy() {
+      return newProxy(HttpServletRequest.class, (method, args) -> {
+        switch (method) {
+          case "getHeader":
+            return headers.get(args[0]);
+          case "getDateHeader":
+            return dateHeaders.getOrDefault(args[0], -1L);
+          case "getRequestURI":
+            return "/test";
+          case "startAsync":
+            return async.proxy();
+          default:
+            return null;
+        }
+      });
+    }
+  }
+
+  /** A response which records its status and headers, and whose body goes to 'out'. */
+  static final class Response {
+    final Map<String, String> headers = new HashMap<>();
+    final Output out = new Output();
+    int status = HttpServletResponse.SC_OK;
+    String contentType;
+    int contentLength = -1;
+
+    synchronized int getStatus() {
+      return status;
+    }
+
+    synchronized String getHeader(String name) {
+      return headers.get(name);
+    }
+
+    HttpServletResponse proxy() {
+      return newProxy(HttpServletResponse.class, (method, args) -> {
+        synchronized (this) {
+          switch (method) {
+            case "setStatus":
+              status = (Integer) args[0];
+              return null;
+            case "getStatus":
+              return status;
+            case "setHeader":
+              headers.put((String) args[0], (String) args[1]);
+              return null;
+            case "setIntHeader":
+            case "setDateHeader":
+              headers.put((String) args[0], String.valueOf(args[1]));
+              return null;
+            case "setContentType":
+              contentType = (String) args[0];
+              return null;
+            case "setContentLength":
+              contentLength = (Integer) args[0];
+              return null;
+            case "isCommitted":
+              return out.size() > 0;
+            case "reset":
+              headers.clear();
+              status = HttpServletResponse.SC_OK;
+              contentType = null;
+              contentLength = -1;
+              return null;
+            case "getOutputStream":
+              return out;
+            default:
+              return null;
+          }
+        }
+      });
+    }
+  }
+
+  /**
+   * An asynchronous context which tells its listeners when it is completed, as the container
+   * does, and counts how often it was completed.
+   */
+  static final class Async {
+    final List<AsyncListener> listeners = new ArrayList<>();
+    final CountDownLatch completed = new CountDownLatch(1);
+    private int completions = 0;
+
+    synchronized AsyncListener listener() {
+      return listeners.get(0);
+    }
+
+    synchronized int getCompletions() {
+      return completions;
+    }
+
+    /** Waits for the request to be completed, and returns whether it was. */
+    boolean awaitCompletion() throws InterruptedException {
+      return completed.await(5, TimeUnit.SECONDS);
+    }
+
+    AsyncContext proxy() {
+      return newProxy(AsyncContext.class, (method, args) -> {
+        switch (method) {
+          case "addListener":
+            synchronized (this) {
+              listeners.add((AsyncListener) args[0]);
+            }
+            return null;
+          case "complete":
+            List<AsyncListener> toNotify;
+            synchronized (this) {
+              completions++;
+              toNotify = new ArrayList<>(listeners);
+            }
+            for (AsyncListener listener : toNotify) {
+              listener.onComplete(null);
+            }
+            completed.countDown();
+            return null;
+          default:
+            return null;
+        }
+      });
+    }
+  }
+
+  /**
+   * A response body the test decides when the client can take. While it is not ready, nothing is
+   * written; {@code setReady(true)} tells the write listener, as the container would.
+   */
+  static final class Output extends ServletOutputStream {
+    private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    private boolean ready = true;
+    private WriteListener listener;
+
+    synchronized int size() {
+      return bytes.size();
+    }
+
+    synchronized byte[] toByteArray() {
+      return bytes.toByteArray();
+    }
+
+    void setReady(boolean ready) throws IOException {
+      WriteListener toNotify;
+      synchronized (this) {
+        this.ready = ready;
+        toNotify = ready ? listener : null;
+      }
+      if (toNotify != null) {
+        toNotify.onWritePossible();
+      }
+    }
+
+    @Override
+    public synchronized boolean isReady() {
+      return ready;
+    }
+
+    @Override
+    public void setWriteListener(WriteListener listener) {
+      boolean notify;
+      synchronized (this) {
+        this.listener = listener;
+        notify = ready;
+      }
+      if (notify) {
+        try {
+          listener.onWritePossible();
+        } catch (IOException e) {
+          listener.onError(e);
+        }
+      }
+    }
+
+    @Override
+    public synchronized void write(int b) {
+      bytes.write(b);
+    }
+
+    @Override
+    public synchronized void write(byte[] b, int offset, int length) {
+      bytes.write(b, offset, length);
+    }
+  }
+
+  /** Answers a method call by its name and arguments. */
+  private interface Handler {
+    Object invoke(String method, Object[] args) throws Exception;
+  }
+
+  private static <T> T newProxy(Class<T> type, Handler handler) {
+    Object proxy = Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type},
+        (self, method, args) -> {
+          Object result = handler.invoke(method.getName(), args);
+          if (result == null && method.getReturnType().isPrimitive()) {
+            return defaultValue(method.getReturnType());
+          }
+          return result;
+        });
+    return type.cast(proxy);
+  }
+
+  private static Object defaultValue(Class<?> type) {
+    if (type == boolean.class) {
+      return false;
+    } else if (type == long.class) {
+      return 0L;
+    } else if (type == int.class) {
+      return 0;
+    }
+    return null;
+  }
+
+  /** Returns an event for 'async', as the container passes to its listeners. */
+  static AsyncEvent event(Async async) {
+    return new AsyncEvent(async.proxy());
+  }
+}
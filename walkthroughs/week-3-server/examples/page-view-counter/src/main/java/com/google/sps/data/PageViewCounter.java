@@ -0,0 +1,259 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.data;
+
+import com.google.appengine.api.datastore.Entity;
+import com.google.appengine.api.datastore.Key;
+import com.google.appengine.api.taskqueue.Queue;
+import com.google.appengine.api.taskqueue.TaskHandle;
+import com.google.appengine.api.taskqueue.TaskOptions;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Counts page views per path. A view only increments a {@link LongAdder}, so concurrent requests
+ * neither lose updates nor contend on a lock, and no view waits for Datastore.
+ *
+ * <p>At most once every 'flushIntervalMillis', the views counted since the last flush are handed
+ * to the task queue, one task per path, and the task handler adds them to {@link PageViewShards}.
+ * The tasks are added without waiting; if adding them failed, their views are sent again by the
+ * next flush. Because the tasks can run on any instance, views from every instance are stored,
+ * and the queue retries a task whose write fails.
+ *
+ * <p>Each flush also starts reading the stored totals, and a count uses the newest read which has
+ * finished, so views counted by other instances show up within an interval or so. A path's first
+ * view only counts this instance's views. At most {@code MAX_PATHS} paths are counted.
+ */
+public final class PageViewCounter {
+  private static final Logger logger = Logger.getLogger(PageViewCounter.class.getName());
+
+  // Also the most tasks the queue takes in one batch.
+  static final int MAX_PATHS = 100;
+
+  private final PageViewShards shards;
+  private final Queue queue;
+  private final String taskUrl;
+  private final long flushIntervalMillis;
+  private final LongSupplier clock;
+  private final AtomicLong nextFlushMillis;
+  private final ConcurrentMap<String, Counter> counters = new ConcurrentHashMap<>();
+
+  // The tasks added by the last flush, and the views each one sends. Guarded by this.
+  private Future<List<TaskHandle>> pendingTasks;
+  private Map<Counter, Long> pendingViews = new HashMap<>();
+
+  /** The views of one path. */
+  private static final class Counter {
+    // Views counted by this instance since it started.
+    final LongAdder views = new LongAdder();
+    // Views handed to the task queue. Guarded by the PageViewCounter.
+    long sentViews = 0;
+    volatile TotalRead totalRead;
+
+    Counter(TotalRead totalRead) {
+      this.totalRead = totalRead;
+    }
+
+    long count() {
+      Totals totals = totalRead.get();
+      return totals.storedTotal + views.sum() - totals.includedViews;
+    }
+  }
+
+  /** A stored total, and how many of this instance's views it is taken to include. */
+  private static final class Totals {
+    static final Totals NONE = new Totals(0, 0);
+
+    final long storedTotal;
+    final long includedViews;
+
+    Totals(long storedTotal, long includedViews) {
+      this.storedTotal = storedTotal;
+      this.includedViews = includedViews;
+    }
+  }
+
+  /** A read of a stored total, which stands in the previous totals until it is done. */
+  private static final class TotalRead {
+    private final Future<Map<Key, Entity>> shards;
+    private final long includedViews;
+    private final Totals previous;
+    private volatile Totals loaded;
+
+    TotalRead(Future<Map<Key, Entity>> shards, long includedViews, Totals previous) {
+      this.shards = shards;
+      this.includedViews = includedViews;
+      this.previous = previous;
+    }
+
+    /** Returns the totals read, or the previous totals if the read is not done, never waiting. */
+    Totals get() {
+      Totals result = loaded;
+      if (result != null) {
+        return result;
+      }
+      if (!shards.isDone()) {
+        return previous;
+      }
+      try {
+        result = new Totals(PageViewShards.total(shards.get()), includedViews);
+      } catch (ExecutionException | RuntimeException e) {
+        logger.log(Level.WARNING, "Failed to read a page view total", e);
+        result = previous;
+      } catch (InterruptedException e) {
+        // The read is done, so this does not happen; try again on the next view.
+        Thread.currentThread().interrupt();
+        return previous;
+      }
+      loaded = result;
+      return result;
+    }
+  }
+
+  /**
+   * Creates a counter which adds a task to 'queue' for 'taskUrl' at most every
+   * 'flushIntervalMillis'. Each task has a "path" parameter and a "views" parameter to add to it.
+   */
+  public PageViewCounter(PageViewShards shards, Queue queue, String taskUrl,
+      long flushIntervalMillis) {
+    this(shards, queue, taskUrl, flushIntervalMillis, System::currentTimeMillis);
+  }
+
+  PageViewCounter(PageViewShards shards, Queue queue, String taskUrl, long flushIntervalMillis,
+      LongSupplier clock) {
+    this.shards = shards;
+    this.queue = queue;
+    this.taskUrl = taskUrl;
+    this.flushIntervalMillis = flushIntervalMillis;
+    this.clock = clock;
+    this.nextFlushMillis = new AtomicLong(clock.getAsLong() + flushIntervalMillis);
+  }
+
+  /**
+   * Counts one view of 'path' and returns its total, flushing first if the interval is up.
+   * Returns -1 without counting anything if 'path' is new and {@code MAX_PATHS} paths are already
+   * counted.
+   */
+  public long increment(String path) {
+    Counter counter = counters.get(path);
+    if (counter == null) {
+      if (counters.size() >= MAX_PATHS) {
+        return -1;
+      }
+      Counter created = new Counter(new TotalRead(shards.readAsync(path), 0, Totals.NONE));
+      counter = counters.putIfAbsent(path, created);
+      if (counter == null) {
+        counter = created;
+      }
+    }
+    counter.views.increment();
+
+    long now = clock.getAsLong();
+    long next = nextFlushMillis.get();
+    // Only the request which moves the next flush time along does this flush.
+    if (now >= next && nextFlushMillis.compareAndSet(next, now + flushIntervalMillis)) {
+      flush();
+    }
+    return counter.count();
+  }
+
+  /** Returns the total views of 'path'. */
+  public long getCount(String path) {
+    Counter counter = counters.get(path);
+    return counter == null ? 0 : counter.count();
+  }
+
+  /**
+   * Hands the views counted since the last flush to the task queue and starts rereading each
+   * total, without waiting for either. Does nothing while the tasks of the last flush are still
+   * being added. Views whose tasks could not be added are sent again.
+   */
+  public synchronized void flush() {
+    if (pendingTasks != null) {
+      if (!pendingTasks.isDone()) {
+        return;
+      }
+      try {
+        pendingTasks.get();
+      } catch (ExecutionException | RuntimeException e) {
+        logger.log(Level.WARNING, "Failed to queue page views; sending them again", e);
+        for (Map.Entry<Counter, Long> entry : pendingViews.entrySet()) {
+          entry.getKey().sentViews -= entry.getValue();
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+      pendingTasks = null;
+      pendingViews = new HashMap<>();
+    }
+
+    List<TaskOptions> tasks = new ArrayList<>();
+    for (Map.Entry<String, Counter> entry : counters.entrySet()) {
+      String path = entry.getKey();
+      Counter counter = entry.getValue();
+      // Views sent before this flush have most likely been stored by the time this read runs.
+      Totals previous = counter.totalRead.get();
+      counter.totalRead =
+          new TotalRead(shards.readAsync(path), counter.sentViews, previous);
+
+      long delta = counter.views.sum() - counter.sentViews;
+      if (delta > 0) {
+        tasks.add(TaskOptions.Builder.withUrl(taskUrl)
+            .param("path", path)
+            .param("views", Long.toString(delta)));
+        counter.sentViews += delta;
+        pendingViews.put(counter, delta);
+      }
+    }
+    if (!tasks.isEmpty()) {
+      pendingTasks = queue.addAsync(tasks);
+    }
+  }
+
+  /**
+   * Flushes every view counted so far, and waits for its tasks to be added. Call this when the
+   * instance shuts down, as nothing flushes afterwards.
+   */
+  public synchronized void flushAndWait() {
+    awaitPendingTasks();
+    flush();
+    awaitPendingTasks();
+  }
+
+  private void awaitPendingTasks() {
+    if (pendingTasks == null) {
+      return;
+    }
+    try {
+      pendingTasks.get();
+    } catch (ExecutionException | RuntimeException e) {
+      // flush() sends these views again.
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
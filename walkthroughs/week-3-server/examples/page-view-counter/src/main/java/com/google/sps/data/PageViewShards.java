@@ -0,0 +1,93 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.data;
+
+import com.google.appengine.api.datastore.AsyncDatastoreService;
+import com.google.appengine.api.datastore.DatastoreService;
+import com.google.appengine.api.datastore.Entity;
+import com.google.appengine.api.datastore.EntityNotFoundException;
+import com.google.appengine.api.datastore.Key;
+import com.google.appengine.api.datastore.KeyFactory;
+import com.google.appengine.api.datastore.Transaction;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * The stored page view totals. Each path's total is split over {@code SHARD_COUNT} entities, and
+ * every write adds to one picked at random, so writes for the same path rarely contend.
+ */
+public final class PageViewShards {
+  private static final String SHARD_KIND = "PageViewShard";
+  private static final int SHARD_COUNT = 16;
+
+  private final DatastoreService datastore;
+  private final AsyncDatastoreService asyncDatastore;
+
+  public PageViewShards(DatastoreService datastore, AsyncDatastoreService asyncDatastore) {
+    this.datastore = datastore;
+    this.asyncDatastore = asyncDatastore;
+  }
+
+  /** Adds 'views' to a random shard of the total of 'path' in a transaction. */
+  public void add(String path, long views) {
+    Key key = shardKey(path, ThreadLocalRandom.current().nextInt(SHARD_COUNT));
+    Transaction transaction = datastore.beginTransaction();
+    try {
+      Entity shard;
+      try {
+        shard = datastore.get(transaction, key);
+      } catch (EntityNotFoundException e) {
+        shard = new Entity(key);
+        shard.setProperty("path", path);
+        shard.setProperty("count", 0L);
+      }
+      shard.setProperty("count", (long) shard.getProperty("count") + views);
+      datastore.put(transaction, shard);
+      transaction.commit();
+    } finally {
+      if (transaction.isActive()) {
+        transaction.rollback();
+      }
+    }
+  }
+
+  /**
+   * Starts reading every shard of the total of 'path' with one batch get, without waiting for
+   * it. Pass the result to {@link #total} once it is done.
+   */
+  public Future<Map<Key, Entity>> readAsync(String path) {
+    List<Key> keys = new ArrayList<>(SHARD_COUNT);
+    for (int i = 0; i < SHARD_COUNT; i++) {
+      keys.add(shardKey(path, i));
+    }
+    return asyncDatastore.get(keys);
+  }
+
+  /** Returns the sum of the shards read by {@link #readAsync}. */
+  public static long total(Map<Key, Entity> shards) {
+    long total = 0;
+    for (Entity shard : shards.values()) {
+      total += (long) shard.getProperty("count");
+    }
+    return total;
+  }
+
+  private static Key shardKey(String path, int index) {
+    return KeyFactory.createKey(SHARD_KIND, path + "#" + index);
+  }
+}
@@ -0,0 +1,85 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import com.google.appengine.api.datastore.DatastoreServiceFactory;
+import com.google.sps.data.PageViewCounter;
+import com.google.sps.data.PageViewShards;
+import java.io.IOException;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Stores page views off the request path. The task queue posts the views one instance counted for
+ * one path, and this adds them to the stored total; a task whose write fails is retried by the
+ * queue. Cron also calls this every minute, so views on an instance which has gone quiet are not
+ * held back until its next view.
+ */
+@WebServlet(PageViewFlushTaskServlet.URL)
+public class PageViewFlushTaskServlet extends HttpServlet {
+  static final String URL = "/tasks/page-views";
+  // App Engine removes these headers from outside requests, so only cron and the task queue can
+  // send them.
+  private static final String CRON_HEADER = "X-Appengine-Cron";
+  private static final String QUEUE_HEADER = "X-AppEngine-QueueName";
+
+  private PageViewShards shards;
+
+  @Override
+  public void init() {
+    shards = new PageViewShards(DatastoreServiceFactory.getDatastoreService(),
+        DatastoreServiceFactory.getAsyncDatastoreService());
+  }
+
+  /** Flushes the views counted by the instance cron reached. Called by cron. */
+  @Override
+  public void doGet(HttpServletRequest request, HttpServletResponse response)
+      throws IOException {
+    if (request.getHeader(CRON_HEADER) == null) {
+      response.sendError(HttpServletResponse.SC_FORBIDDEN);
+      return;
+    }
+    PageViewCounter pageViews =
+        (PageViewCounter) getServletContext().getAttribute(PageViewServlet.COUNTER_ATTRIBUTE);
+    // Null if this instance has not counted any views yet.
+    if (pageViews != null) {
+      pageViews.flush();
+    }
+  }
+
+  /** Adds one flush's views of one path to its stored total. Called by the task queue. */
+  @Override
+  public void doPost(HttpServletRequest request, HttpServletResponse response)
+      throws IOException {
+    if (request.getHeader(QUEUE_HEADER) == null) {
+      response.sendError(HttpServletResponse.SC_FORBIDDEN);
+      return;
+    }
+    String path = request.getParameter("path");
+    long views;
+    try {
+      views = Long.parseLong(request.getParameter("views"));
+    } catch (NumberFormatException e) {
+      // Retrying would not help, so tell the queue the task is done.
+      log("Dropping page view task for " + path, e);
+      return;
+    }
+    if (path != null && views > 0) {
+      shards.add(path, views);
+    }
+  }
+}
@@ -14,24 +14,74 @@
 
 package com.google.sps.servlets;
 
+import com.google.appengine.api.datastore.DatastoreServiceFactory;
+import com.google.appengine.api.taskqueue.QueueFactory;
+import com.google.sps.data.PageViewCounter;
+import com.google.sps.data.PageViewShards;
 import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Locale;
+import java.util.regex.Pattern;
 import javax.servlet.annotation.WebServlet;
 import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
-/** Servlet that returns HTML that contains the page view count. */
-@WebServlet("/page-views")
+/**
+ * Servlet that returns HTML that contains the page view count. Every page under /page-views is
+ * counted separately, e.g. /page-views/about. Paths are case-insensitive and ignore a trailing
+ * slash, and only short paths of letters, digits and dashes are counted, so made-up URLs cannot
+ * create counters without limit. Views are stored by {@link PageViewFlushTaskServlet}.
+ */
+@WebServlet("/page-views/*")
 public class PageViewServlet extends HttpServlet {
 
-  private int pageViews = 0;
+  // Lets PageViewFlushTaskServlet find this instance's counter.
+  static final String COUNTER_ATTRIBUTE = PageViewCounter.class.getName();
+
+  private static final long FLUSH_INTERVAL_MILLIS = 10_000;
+  private static final Pattern PAGE = Pattern.compile("(/[a-z0-9-]{1,32}){0,3}");
+
+  private PageViewCounter pageViews;
+
+  @Override
+  public void init() {
+    PageViewShards shards = new PageViewShards(DatastoreServiceFactory.getDatastoreService(),
+        DatastoreServiceFactory.getAsyncDatastoreService());
+    pageViews = new PageViewCounter(shards, QueueFactory.getDefaultQueue(),
+        PageViewFlushTaskServlet.URL, FLUSH_INTERVAL_MILLIS);
+    getServletContext().setAttribute(COUNTER_ATTRIBUTE, pageViews);
+  }
+
+  @Override
+  public void destroy() {
+    pageViews.flushAndWait();
+  }
 
   @Override
   public void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
-    pageViews++;
+    String page = normalize(request.getPathInfo());
+    long count = page == null ? -1 : pageViews.increment("/page-views" + page);
+    if (count < 0) {
+      response.sendError(HttpServletResponse.SC_NOT_FOUND);
+      return;
+    }
 
     response.setContentType("text/html;");
-    response.getWriter().println("<h1>Page Views</h1>");
-    response.getWriter().println("<p>This page has been viewed " + pageViews + " times.</p>");
+    PrintWriter out = response.getWriter();
+    out.println("<h1>Page Views</h1>");
+    out.println("<p>This page has been viewed " + count + " times.</p>");
+  }
+
+  /** Returns the page 'pathInfo' names, or null if it is not a page that is counted. */
+  private static String normalize(String pathInfo) {
+    if (pathInfo == null) {
+      return "";
+    }
+    String page = pathInfo.toLowerCase(Locale.ROOT);
+    while (page.endsWith("/")) {
+      page = page.substring(0, page.length() - 1);
+    }
+    return PAGE.matcher(page).matches() ? page : null;
   }
 }
@@ -0,0 +1,234 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.data;
+
+import com.google.appengine.api.datastore.DatastoreServiceFactory;
+import com.google.appengine.api.taskqueue.Queue;
+import com.google.appengine.api.taskqueue.TaskOptions;
+import com.google.appengine.tools.development.testing.LocalDatastoreServiceTestConfig;
+import com.google.appengine.tools.development.testing.LocalServiceTestHelper;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class PageViewCounterTest {
+  private static final String TASK_URL = "/tasks/page-views";
+  private static final long FLUSH_INTERVAL_MILLIS = 10_000;
+
+  private final LocalServiceTestHelper helper =
+      new LocalServiceTestHelper(new LocalDatastoreServiceTestConfig());
+
+  private PageViewShards shards;
+  private AtomicLong now;
+  // The tasks the queue accepted, and what the next add returns.
+  private List<TaskOptions> tasks;
+  private CompletableFuture<Object> nextAdd;
+  private PageViewCounter counter;
+
+  @Before
+  public void setUp() {
+    helper.setUp();
+    shards = new PageViewShards(DatastoreServiceFactory.getDatastoreService(),
+        DatastoreServiceFactory.getAsyncDatastoreService());
+    now = new AtomicLong(1000);
+    tasks = new ArrayList<>();
+    nextAdd = CompletableFuture.completedFuture(null);
+    counter = new PageViewCounter(shards, fakeQueue(), TASK_URL, FLUSH_INTERVAL_MILLIS, now::get);
+  }
+
+  @After
+  public void tearDown() {
+    helper.tearDown();
+  }
+
+  /** Returns a queue whose addAsync records the tasks it is given and returns 'nextAdd'. */
+  @SuppressWarnings("unchecked")
+  private Queue fakeQueue() {
+    return (Queue) Proxy.newProxyInstance(Queue.class.getClassLoader(),
+        new Class<?>[] {Queue.class}, (self, method, args) -> {
+          if (!method.getName().equals("addAsync") || !(args[0] instanceof Iterable)) {
+            throw new UnsupportedOperationException(method.getName());
+          }
+          CompletableFuture<Object> result = nextAdd;
+          result.thenRun(() -> {
+            for (TaskOptions task : (Iterable<TaskOptions>) args[0]) {
+              tasks.add(task);
+            }
+          });
+          return result;
+        });
+  }
+
+  /** Runs the accepted tasks the way PageViewFlushTaskServlet does, and returns their views. */
+  private Map<String, Long> runTasks() {
+    Map<String, Long> views = new HashMap<>();
+    for (TaskOptions task : tasks) {
+      Assert.assertEquals(TASK_URL, task.getUrl());
+      String path = task.getStringParams().get("path").get(0);
+      long taskViews = Long.parseLong(task.getStringParams().get("views").get(0));
+      shards.add(path, taskViews);
+      views.merge(path, taskViews, Long::sum);
+    }
+    tasks.clear();
+    return views;
+  }
+
+  private long storedTotal(String path) throws Exception {
+    return PageViewShards.total(shards.readAsync(path).get());
+  }
+
+  /** Waits for the reads started by the counter to finish, and returns the count of 'path'. */
+  private long awaitCount(String path, long expected) throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (counter.getCount(path) != expected && System.nanoTime() < deadline) {
+      Thread.sleep(10);
+    }
+    return counter.getCount(path);
+  }
+
+  @Test
+  public void incrementCountsWithoutFlushing() throws Exception {
+    Assert.assertEquals(1, counter.increment("/a"));
+    Assert.assertEquals(2, counter.increment("/a"));
+    Assert.assertEquals(1, counter.increment("/b"));
+
+    Assert.assertTrue(tasks.isEmpty());
+    Assert.assertEquals(0, storedTotal("/a"));
+    Assert.assertEquals(2, counter.getCount("/a"));
+    Assert.assertEquals(0, counter.getCount("/unseen"));
+  }
+
+  @Test
+  public void flushSendsOnlyViewsSinceTheLastFlush() throws Exception {
+    for (int i = 0; i < 3; i++) {
+      counter.increment("/a");
+    }
+    counter.flush();
+    Assert.assertEquals(3L, (long) runTasks().get("/a"));
+
+    counter.increment("/a");
+    counter.increment("/a");
+    counter.increment("/b");
+    counter.flush();
+    Map<String, Long> views = runTasks();
+    Assert.assertEquals(2L, (long) views.get("/a"));
+    Assert.assertEquals(1L, (long) views.get("/b"));
+
+    counter.flush();
+    Assert.assertTrue(runTasks().isEmpty());
+    Assert.assertEquals(5, storedTotal("/a"));
+    Assert.assertEquals(1, storedTotal("/b"));
+  }
+
+  @Test
+  public void countIncludesViewsStoredByOtherInstancesOnce() throws Exception {
+    shards.add("/a", 10);
+
+    counter.increment("/a");
+    Assert.assertEquals(11, awaitCount("/a", 11));
+
+    // Once this instance's view is stored, the next read must not count it twice.
+    counter.flush();
+    runTasks();
+    counter.flush();
+    Assert.assertEquals(11, awaitCount("/a", 11));
+    shards.add("/a", 5);
+    counter.flush();
+    Assert.assertEquals(16, awaitCount("/a", 16));
+  }
+
+  @Test
+  public void incrementFlushesOnceTheIntervalIsUp() {
+    counter.increment("/a");
+    Assert.assertTrue(tasks.isEmpty());
+
+    now.addAndGet(FLUSH_INTERVAL_MILLIS);
+    counter.increment("/a");
+    Assert.assertEquals(2L, (long) runTasks().get("/a"));
+
+    counter.increment("/a");
+    Assert.assertTrue(tasks.isEmpty());
+  }
+
+  @Test
+  public void failedFlushKeepsItsViews() throws Exception {
+    counter.increment("/a");
+    counter.increment("/a");
+    nextAdd = new CompletableFuture<>();
+    nextAdd.completeExceptionally(new IllegalStateException("Queue unavailable"));
+    counter.flush();
+    Assert.assertTrue(tasks.isEmpty());
+
+    counter.increment("/a");
+    nextAdd = CompletableFuture.completedFuture(null);
+    counter.flush();
+
+    Assert.assertEquals(3L, (long) runTasks().get("/a"));
+    Assert.assertEquals(3, storedTotal("/a"));
+  }
+
+  @Test
+  public void flushWaitsForTheTasksBeingAdded() {
+    counter.increment("/a");
+    CompletableFuture<Object> slowAdd = new CompletableFuture<>();
+    nextAdd = slowAdd;
+    counter.flush();
+
+    counter.increment("/a");
+    nextAdd = CompletableFuture.completedFuture(null);
+    counter.flush();
+    Assert.assertTrue(tasks.isEmpty());
+
+    slowAdd.complete(null);
+    Assert.assertEquals(1L, (long) runTasks().get("/a"));
+    counter.flush();
+    Assert.assertEquals(1L, (long) runTasks().get("/a"));
+  }
+
+  @Test
+  public void flushAndWaitSendsEveryView() throws Exception {
+    counter.increment("/a");
+    counter.increment("/a");
+
+    counter.flushAndWait();
+
+    runTasks();
+    Assert.assertEquals(2, storedTotal("/a"));
+  }
+
+  @Test
+  public void newPathsAreRefusedOnceMaxPathsAreCounted() {
+    for (int i = 0; i < PageViewCounter.MAX_PATHS; i++) {
+      Assert.assertEquals(1, counter.increment("/page-" + i));
+    }
+
+    Assert.assertEquals(-1, counter.increment("/one-too-many"));
+    Assert.assertEquals(0, counter.getCount("/one-too-many"));
+    Assert.assertEquals(2, counter.increment("/page-0"));
+  }
+}
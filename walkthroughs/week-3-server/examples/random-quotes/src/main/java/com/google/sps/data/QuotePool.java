@@ -0,0 +1,68 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.data;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * An immutable set of quotes, each already encoded as UTF-8 so that serving one is a single copy
+ * of bytes. Picking a quote uses {@link ThreadLocalRandom}, so concurrent requests never contend.
+ */
+public final class QuotePool {
+  private final byte[][] quotes;
+
+  private QuotePool(byte[][] quotes) {
+    this.quotes = quotes;
+  }
+
+  /**
+   * Reads quotes from 'in', one per line in UTF-8, skipping blank lines and lines starting with
+   * '#'. Throws an {@code IOException} if there are no quotes.
+   */
+  public static QuotePool read(InputStream in) throws IOException {
+    List<byte[]> quotes = new ArrayList<>();
+    try (BufferedReader reader =
+        new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        line = line.trim();
+        if (!line.isEmpty() && !line.startsWith("#")) {
+          quotes.add(line.getBytes(StandardCharsets.UTF_8));
+        }
+      }
+    }
+    if (quotes.isEmpty()) {
+      throw new IOException("There are no quotes to serve");
+    }
+    return new QuotePool(quotes.toArray(new byte[0][]));
+  }
+
+  /** Returns the number of quotes. */
+  public int size() {
+    return quotes.length;
+  }
+
+  /** Returns a random quote as UTF-8. The array is shared, so callers must not modify it. */
+  public byte[] pick() {
+    return quotes[ThreadLocalRandom.current().nextInt(quotes.length)];
+  }
+}
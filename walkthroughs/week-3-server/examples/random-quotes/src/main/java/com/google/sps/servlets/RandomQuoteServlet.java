@@ -14,45 +14,97 @@
 
 package com.google.sps.servlets;
 
+import com.google.sps.data.QuotePool;
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.List;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import javax.servlet.ServletException;
 import javax.servlet.annotation.WebServlet;
 import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
-/** Servlet that returns a random quote. */
+/**
+ * Servlet that returns a random quote. The quotes are read once, from the quotes.txt resource or
+ * from the file named by the 'quotes.file' system property, and kept encoded so that a request
+ * costs about as much as serving a static file.
+ */
 @WebServlet("/random-quote")
 public final class RandomQuoteServlet extends HttpServlet {
 
-  private List<String> quotes;
+  private static final String QUOTES_RESOURCE = "/quotes.txt";
+  private static final String QUOTES_FILE_PROPERTY = "quotes.file";
+
+  // How often a quotes file is checked for changes.
+  private static final long RELOAD_CHECK_MILLIS = 30_000;
+
+  private static final String CONTENT_TYPE = "text/html;charset=UTF-8";
+
+  // Replaced as a whole on reload, so requests never see a pool that is partly loaded.
+  private volatile QuotePool quotes;
+
+  private Path quotesFile;
+  private long quotesFileModifiedTime;
+  private ScheduledExecutorService reloader;
+
+  @Override
+  public void init() throws ServletException {
+    String quotesFileName = System.getProperty(QUOTES_FILE_PROPERTY);
+    try {
+      if (quotesFileName == null) {
+        try (InputStream in = getClass().getResourceAsStream(QUOTES_RESOURCE)) {
+          quotes = QuotePool.read(in);
+        }
+        return;
+      }
+      quotesFile = Paths.get(quotesFileName);
+      quotesFileModifiedTime = Files.getLastModifiedTime(quotesFile).toMillis();
+      quotes = QuotePool.read(Files.newInputStream(quotesFile));
+    } catch (IOException e) {
+      throw new ServletException("Could not read the quotes", e);
+    }
+
+    reloader = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "quote-reloader");
+      thread.setDaemon(true);
+      return thread;
+    });
+    reloader.scheduleWithFixedDelay(
+        this::reloadIfChanged, RELOAD_CHECK_MILLIS, RELOAD_CHECK_MILLIS, TimeUnit.MILLISECONDS);
+  }
 
   @Override
-  public void init() {
-    quotes = new ArrayList<>();
-    quotes.add(
-        "A ship in port is safe, but that is not what ships are for. "
-            + "Sail out to sea and do new things. - Grace Hopper");
-    quotes.add("They told me computers could only do arithmetic. - Grace Hopper");
-    quotes.add("A ship in port is safe, but that's not what ships are built for. - Grace Hopper");
-    quotes.add("It is much easier to apologise than it is to get permission. - Grace Hopper");
-    quotes.add("If you can't give me poetry, can't you give me poetical science? - Ada Lovelace");
-    quotes.add("I am in a charming state of confusion. - Ada Lovelace");
-    quotes.add(
-        "The Analytical Engine weaves algebraic patterns, "
-            + "just as the Jacquard loom weaves flowers and leaves. - Ada Lovelace");
-    quotes.add(
-        "Sometimes it is the people no one can imagine anything of "
-            + "who do the things no one can imagine. - Alan Turing");
-    quotes.add("Those who can imagine anything, can create the impossible. - Alan Turing");
+  public void destroy() {
+    if (reloader != null) {
+      reloader.shutdownNow();
+    }
   }
 
   @Override
   public void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
-    String quote = quotes.get((int) (Math.random() * quotes.size()));
+    byte[] quote = quotes.pick();
+
+    response.setContentType(CONTENT_TYPE);
+    response.setContentLength(quote.length);
+    response.getOutputStream().write(quote);
+  }
 
-    response.setContentType("text/html;");
-    response.getWriter().println(quote);
+  /** Swaps in the quotes file's new contents if it has changed, keeping the old ones on error. */
+  private void reloadIfChanged() {
+    try {
+      long modifiedTime = Files.getLastModifiedTime(quotesFile).toMillis();
+      if (modifiedTime == quotesFileModifiedTime) {
+        return;
+      }
+      quotes = QuotePool.read(Files.newInputStream(quotesFile));
+      quotesFileModifiedTime = modifiedTime;
+    } catch (IOException e) {
+      log("Could not reload the quotes from " + quotesFile, e);
+    }
   }
 }
@@ -0,0 +1,69 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.data;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.Set;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class QuotePoolTest {
+
+  @Test
+  public void skipsBlankLinesAndComments() throws IOException {
+    QuotePool pool = read("# Quotes\n\nFirst quote\n   \n  # indented comment\nSecond quote\n");
+
+    Assert.assertEquals(2, pool.size());
+  }
+
+  @Test
+  public void picksOnlyQuotesFromTheInput() throws IOException {
+    QuotePool pool = read("  First quote  \nSecond quote\n");
+
+    Set<String> picked = new HashSet<>();
+    for (int i = 0; i < 100; i++) {
+      picked.add(new String(pool.pick(), StandardCharsets.UTF_8));
+    }
+
+    // Lines are trimmed, and 100 picks of 2 quotes are all but certain to find both.
+    Set<String> expected = new HashSet<>();
+    expected.add("First quote");
+    expected.add("Second quote");
+    Assert.assertEquals(expected, picked);
+  }
+
+  @Test
+  public void keepsMultiByteQuotes() throws IOException {
+    QuotePool pool = read("Ça va — très bien\n");
+
+    Assert.assertEquals("Ça va — très bien", new String(pool.pick(), StandardCharsets.UTF_8));
+  }
+
+  @Test(expected = IOException.class)
+  public void inputWithoutQuotesIsAnError() throws IOException {
+    read("# only a comment\n\n");
+  }
+
+  private static QuotePool read(String text) throws IOException {
+    return QuotePool.read(new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8)));
+  }
+}
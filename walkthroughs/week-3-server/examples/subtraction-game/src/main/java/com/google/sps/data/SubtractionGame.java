@@ -15,71 +15,120 @@
 package com.google.sps.data;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 /**
- * Class representing the subtraction game, where players take turns subtracting from 21 to reach 0.
+ * Class representing the subtraction game, where players take turns subtracting from a total to
+ * reach 0. The starting total and the amounts which may be subtracted are set by its
+ * {@link SubtractionRules}; the computer always plays the best move they allow.
  *
- * <p>Note: The private variables in this class are converted into JSON.
+ * <p>Games are shared by every request of a session, so all of their methods are synchronized. The
+ * history is kept as a compact log of moves, and is only turned into descriptions, e.g. "Player 1
+ * subtracted 3", when the game is sent to the browser by {@link SubtractionGameAdapter}.
  */
 public class SubtractionGame {
 
-  /** List of descriptions of turns, e.g. "Player 1 took 3. New total: 18" */
-  private final List<String> history = new ArrayList<>();
+  private static final int PLAYER = 0;
+  private static final int COMPUTER = 1;
+
+  private final SubtractionRules rules;
+
+  /** Every move so far, packed as (choice << 1 | PLAYER or COMPUTER). */
+  private int[] moves = new int[8];
+  private int moveCount = 0;
 
   /** The total of the current turn. */
-  private int currentTotal = 21;
+  private int currentTotal;
 
   /** Whether this game has ended, i.e. one of the players reached 0. */
   private boolean gameOver = false;
 
+  /** Creates a game of the classic rules: start from 21 and subtract 1, 2, or 3. */
+  public SubtractionGame() {
+    this(SubtractionRules.CLASSIC);
+  }
+
+  public SubtractionGame(SubtractionRules rules) {
+    this.rules = rules;
+    this.currentTotal = rules.getStartingTotal();
+  }
+
+  /** Returns the rules of this game. */
+  public SubtractionRules getRules() {
+    return rules;
+  }
+
   /** Returns whether this game has ended. */
-  public boolean isGameOver() {
+  public synchronized boolean isGameOver() {
     return gameOver;
   }
 
+  /** Returns the total of the current turn. */
+  public synchronized int getCurrentTotal() {
+    return currentTotal;
+  }
+
   /** Takes the player's turn, subtracting `playerChoice` from the total. */
-  public void takePlayerTurn(int playerChoice) {
+  public synchronized void takePlayerTurn(int playerChoice) {
     currentTotal -= playerChoice;
     if (currentTotal < 0) {
       currentTotal = 0;
     }
-    logMove("Player 1", playerChoice, currentTotal);
+    logMove(PLAYER, playerChoice);
 
     if (currentTotal == 0) {
       // Player 1 won
-      history.add("Player 1 won!");
-      history.add("I want a rematch!");
       gameOver = true;
     } else {
       takeComputerTurn();
     }
   }
 
-  private void takeComputerTurn() {
-    int computerChoice;
-    if (currentTotal <= 3) {
-      // If the current total is 1, 2, or 3, then the computer can win this turn
-      // by subtracting the current total.
-      computerChoice = currentTotal;
-    } else {
-      // The computer can't win this turn,
-      // so generate a random number between 1 and 3 inclusive.
-      computerChoice = 1 + (int) (Math.random() * 3);
+  /**
+   * Returns descriptions of the turns so far, e.g. "Player 1 subtracted 3" and "New total: 18",
+   * followed by the winner if the game is over.
+   */
+  public synchronized List<String> getHistory() {
+    List<String> history = new ArrayList<>(moveCount * 2 + 2);
+    int total = rules.getStartingTotal();
+    for (int i = 0; i < moveCount; i++) {
+      int choice = moves[i] >> 1;
+      total = Math.max(total - choice, 0);
+      history.add(getName(moves[i] & 1) + " subtracted " + choice);
+      history.add("New total: " + total);
+    }
+    if (gameOver) {
+      if ((moves[moveCount - 1] & 1) == PLAYER) {
+        history.add("Player 1 won!");
+        history.add("I want a rematch!");
+      } else {
+        history.add("Computer won!");
+        history.add("Want a rematch?");
+      }
     }
+    return history;
+  }
 
-    currentTotal -= computerChoice;
-    logMove("Computer", computerChoice, currentTotal);
+  private void takeComputerTurn() {
+    int computerChoice = rules.chooseMove(currentTotal);
+
+    currentTotal = Math.max(currentTotal - computerChoice, 0);
+    logMove(COMPUTER, computerChoice);
 
     if (currentTotal == 0) {
-      history.add("Computer won!");
-      history.add("Want a rematch?");
       gameOver = true;
     }
   }
 
-  private void logMove(String player, int choice, int newTotal) {
-    history.add(player + " subtracted " + choice);
-    history.add("New total: " + newTotal);
+  private void logMove(int mover, int choice) {
+    if (moveCount == moves.length) {
+      moves = Arrays.copyOf(moves, moveCount * 2);
+    }
+    moves[moveCount++] = choice << 1 | mover;
+  }
+
+  private static String getName(int mover) {
+    return mover == PLAYER ? "Player 1" : "Computer";
   }
 }
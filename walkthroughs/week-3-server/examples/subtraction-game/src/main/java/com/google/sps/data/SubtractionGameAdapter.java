@@ -0,0 +1,68 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.data;
+
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Streams a {@code SubtractionGame} as JSON in the shape the page expects, rendering its history
+ * from the game's move log. Games are only sent to the browser, so {@code read} rejects its input.
+ */
+public final class SubtractionGameAdapter extends TypeAdapter<SubtractionGame> {
+  @Override
+  public void write(JsonWriter out, SubtractionGame game) throws IOException {
+    if (game == null) {
+      out.nullValue();
+      return;
+    }
+    // Read the game under its lock so the fields all come from the same turn.
+    SubtractionRules rules = game.getRules();
+    List<String> history;
+    int currentTotal;
+    boolean gameOver;
+    synchronized (game) {
+      history = game.getHistory();
+      currentTotal = game.getCurrentTotal();
+      gameOver = game.isGameOver();
+    }
+
+    out.beginObject();
+    out.name("history").beginArray();
+    for (String line : history) {
+      out.value(line);
+    }
+    out.endArray();
+    out.name("currentTotal").value(currentTotal);
+    out.name("gameOver").value(gameOver);
+    out.name("startingTotal").value(rules.getStartingTotal());
+    out.name("moves").beginArray();
+    for (int move : rules.getMoves()) {
+      out.value(move);
+    }
+    out.endArray();
+    out.endObject();
+  }
+
+  @Override
+  public SubtractionGame read(JsonReader in) {
+    throw new JsonParseException("Cannot read a SubtractionGame from JSON at " + in.getPath()
+        + ": SubtractionGameAdapter only writes games; moves come from the /subtraction-game form");
+  }
+}
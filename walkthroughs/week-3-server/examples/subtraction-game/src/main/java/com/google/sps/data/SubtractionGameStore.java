@@ -0,0 +1,118 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.data;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Holds the game of each session. Games idle for longer than 'maxIdleMillis' are dropped, and if
+ * more than 'maxGames' are held the least recently used are dropped, so the heap the store needs is
+ * bounded no matter how many players come and go.
+ *
+ * <p>Eviction runs on the request which starts a game rather than on a background thread. Idle
+ * games are swept at most once a minute, and a full store evicts down to 90% of 'maxGames' so it
+ * does not have to evict again on every new game.
+ */
+public final class SubtractionGameStore {
+  private static final long SWEEP_INTERVAL_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+  private final SubtractionRules rules;
+  private final int maxGames;
+  private final long maxIdleNanos;
+  private final LongSupplier nanoClock;
+  private final ConcurrentMap<String, Entry> games = new ConcurrentHashMap<>();
+
+  private final Object evictionLock = new Object();
+  private volatile long lastSweepNanos;
+
+  /** A game and when its session last used it. */
+  private static final class Entry {
+    final SubtractionGame game;
+    volatile long lastAccessNanos;
+
+    Entry(SubtractionGame game, long now) {
+      this.game = game;
+      this.lastAccessNanos = now;
+    }
+  }
+
+  public SubtractionGameStore(SubtractionRules rules, int maxGames, long maxIdleMillis) {
+    this(rules, maxGames, maxIdleMillis, System::nanoTime);
+  }
+
+  /** Creates a store which reads the time from 'nanoClock', such as a fake clock in tests. */
+  SubtractionGameStore(SubtractionRules rules, int maxGames, long maxIdleMillis,
+      LongSupplier nanoClock) {
+    this.rules = rules;
+    this.maxGames = maxGames;
+    this.maxIdleNanos = TimeUnit.MILLISECONDS.toNanos(maxIdleMillis);
+    this.nanoClock = nanoClock;
+    this.lastSweepNanos = nanoClock.getAsLong();
+  }
+
+  /** Returns the game of 'sessionId', or null if it has none. */
+  public SubtractionGame find(String sessionId) {
+    Entry entry = games.get(sessionId);
+    if (entry == null) {
+      return null;
+    }
+    entry.lastAccessNanos = nanoClock.getAsLong();
+    return entry.game;
+  }
+
+  /** Starts a new game for 'sessionId', replacing any game it had, and returns it. */
+  public SubtractionGame start(String sessionId) {
+    long now = nanoClock.getAsLong();
+    Entry entry = new Entry(new SubtractionGame(rules), now);
+    games.put(sessionId, entry);
+    evict(now);
+    return entry.game;
+  }
+
+  /** Returns the number of games held. */
+  public int size() {
+    return games.size();
+  }
+
+  private void evict(long now) {
+    if (games.size() <= maxGames && now - lastSweepNanos < SWEEP_INTERVAL_NANOS) {
+      return;
+    }
+    synchronized (evictionLock) {
+      if (now - lastSweepNanos >= SWEEP_INTERVAL_NANOS) {
+        lastSweepNanos = now;
+        games.values().removeIf(entry -> now - entry.lastAccessNanos > maxIdleNanos);
+      }
+      if (games.size() > maxGames) {
+        evictLeastRecentlyUsed(games.size() - maxGames * 9 / 10);
+      }
+    }
+  }
+
+  private void evictLeastRecentlyUsed(int count) {
+    List<Map.Entry<String, Entry>> entries = new ArrayList<>(games.entrySet());
+    entries.sort(Comparator.comparingLong(entry -> entry.getValue().lastAccessNanos));
+    for (int i = 0; i < count && i < entries.size(); i++) {
+      games.remove(entries.get(i).getKey(), entries.get(i).getValue());
+    }
+  }
+}
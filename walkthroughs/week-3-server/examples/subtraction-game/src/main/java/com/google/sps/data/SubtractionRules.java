@@ -0,0 +1,103 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.data;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * The rules of a subtraction game: the total each game starts from, and the amounts a player may
+ * subtract on their turn. A player who subtracts at least the current total reaches 0 and wins.
+ *
+ * <p>Whether each total is a win for the player about to move is worked out once, when the rules
+ * are created, and kept in a {@link BitSet} with one bit per total. Choosing the best move is then
+ * a lookup for each allowed amount, however large the starting total is.
+ */
+public final class SubtractionRules {
+
+  /** The original game: start from 21 and subtract 1, 2, or 3. */
+  public static final SubtractionRules CLASSIC = new SubtractionRules(21, 1, 2, 3);
+
+  private final int startingTotal;
+  private final int[] moves;
+
+  /** Bit t is set if the player about to move from total t can force a win. */
+  private final BitSet winning;
+
+  /**
+   * Creates rules, computing the winning totals up to 'startingTotal'. This takes time and memory
+   * proportional to 'startingTotal', so rules should be created once and shared.
+   *
+   * @param moves The amounts a player may subtract, which must be positive.
+   */
+  public SubtractionRules(int startingTotal, int... moves) {
+    if (startingTotal < 1) {
+      throw new IllegalArgumentException("The starting total must be positive: " + startingTotal);
+    }
+    int[] sortedMoves = Arrays.stream(moves).sorted().distinct().toArray();
+    if (sortedMoves.length == 0 || sortedMoves[0] < 1) {
+      throw new IllegalArgumentException("Moves must be positive: " + Arrays.toString(moves));
+    }
+    this.startingTotal = startingTotal;
+    this.moves = sortedMoves;
+
+    // A total is a win if some move reaches 0, or leaves the other player on a total they lose.
+    winning = new BitSet(startingTotal + 1);
+    for (int total = 1; total <= startingTotal; total++) {
+      for (int move : sortedMoves) {
+        if (move >= total || !winning.get(total - move)) {
+          winning.set(total);
+          break;
+        }
+      }
+    }
+  }
+
+  /** Returns the total each game starts from. */
+  public int getStartingTotal() {
+    return startingTotal;
+  }
+
+  /** Returns the amounts a player may subtract, smallest first. */
+  public int[] getMoves() {
+    return moves.clone();
+  }
+
+  /** Returns whether a player may subtract 'move'. */
+  public boolean isLegalMove(int move) {
+    return Arrays.binarySearch(moves, move) >= 0;
+  }
+
+  /** Returns whether the player about to move from 'total' can force a win. */
+  public boolean isWinning(int total) {
+    return winning.get(total);
+  }
+
+  /**
+   * Returns the best amount to subtract from 'total'. From a winning total this is a move which
+   * wins; from a losing total no move can, so a random one is returned.
+   */
+  public int chooseMove(int total) {
+    if (winning.get(total)) {
+      for (int move : moves) {
+        if (move >= total || !winning.get(total - move)) {
+          return move;
+        }
+      }
+    }
+    return moves[ThreadLocalRandom.current().nextInt(moves.length)];
+  }
+}
@@ -15,41 +15,86 @@
 package com.google.sps.servlets;
 
 import com.google.sps.data.SubtractionGame;
+import com.google.sps.data.SubtractionGameAdapter;
+import com.google.sps.data.SubtractionGameStore;
+import com.google.sps.data.SubtractionRules;
 import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
 import javax.servlet.annotation.WebServlet;
 import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpSession;
 
-/** Servlet that encapsulates the subtraction game. */
+/** Servlet that encapsulates the subtraction game. Each session plays its own game. */
 @WebServlet("/subtraction-game")
 public final class SubtractionServlet extends HttpServlet {
 
-  private SubtractionGame game = new SubtractionGame();
+  private static final int MAX_GAMES = 10_000;
+  private static final long MAX_IDLE_MILLIS = TimeUnit.MINUTES.toMillis(30);
+
+  // Set to play a different game, e.g. a starting total of "1000000" and moves of "1,3,4".
+  private static final String STARTING_TOTAL_PROPERTY = "subtraction.startingTotal";
+  private static final String MOVES_PROPERTY = "subtraction.moves";
+
+  private SubtractionRules rules;
+  private SubtractionGameStore games;
+
+  private final Gson gson = new GsonBuilder()
+      .registerTypeAdapter(SubtractionGame.class, new SubtractionGameAdapter())
+      .create();
+
+  @Override
+  public void init() {
+    String startingTotal = System.getProperty(STARTING_TOTAL_PROPERTY);
+    String moves = System.getProperty(MOVES_PROPERTY);
+    if (startingTotal == null && moves == null) {
+      rules = SubtractionRules.CLASSIC;
+    } else {
+      // The winning totals are worked out here, once, rather than on any player's turn.
+      rules = new SubtractionRules(
+          startingTotal == null ? 21 : Integer.parseInt(startingTotal.trim()),
+          moves == null ? new int[] {1, 2, 3} : Arrays.stream(moves.split(","))
+              .mapToInt(move -> Integer.parseInt(move.trim())).toArray());
+    }
+    games = new SubtractionGameStore(rules, MAX_GAMES, MAX_IDLE_MILLIS);
+  }
 
   @Override
   public void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+    // Only store a game once the player makes a move, so page views alone cost nothing.
+    HttpSession session = request.getSession(false);
+    SubtractionGame game = session == null ? null : games.find(session.getId());
+    if (game == null) {
+      game = new SubtractionGame(rules);
+    }
+
     response.setContentType("application/json");
-    String json = new Gson().toJson(game);
+    String json = gson.toJson(game);
     response.getWriter().println(json);
   }
 
   @Override
   public void doPost(HttpServletRequest request, HttpServletResponse response) throws IOException {
-    // If the user sends another POST request after the game is over, then start a new game.
-    if (game.isGameOver()) {
-      game = new SubtractionGame();
-    }
-
     // Get the input from the form.
     int playerChoice = getPlayerChoice(request);
     if (playerChoice == -1) {
       response.setContentType("text/html");
-      response.getWriter().println("Please enter an integer between 1 and 3.");
+      response.getWriter().println(
+          "Please enter one of these integers: " + Arrays.toString(rules.getMoves()));
       return;
     }
 
+    // If the user sends another POST request after the game is over, then start a new game.
+    String sessionId = request.getSession().getId();
+    SubtractionGame game = games.find(sessionId);
+    if (game == null || game.isGameOver()) {
+      game = games.start(sessionId);
+    }
+
     game.takePlayerTurn(playerChoice);
 
     // Redirect back to the HTML page.
@@ -70,8 +115,8 @@ public final class SubtractionServlet extends HttpServlet {
       return -1;
     }
 
-    // Check that the input is between 1 and 3.
-    if (playerChoice < 1 || playerChoice > 3) {
+    // Check that the rules allow subtracting the input.
+    if (!rules.isLegalMove(playerChoice)) {
       System.err.println("Player choice is out of range: " + playerChoiceString);
       return -1;
     }
@@ -20,7 +20,7 @@ function getSubtractionGame() {
     const totalEl = document.getElementById('total');
     if (game.gameOver) {
       // The current game is over, show the total for the next game.
-      totalEl.innerText = 'Total: 21';
+      totalEl.innerText = 'Total: ' + game.startingTotal;
     } else {
       totalEl.innerText = 'Total: ' + game.currentTotal;
     }
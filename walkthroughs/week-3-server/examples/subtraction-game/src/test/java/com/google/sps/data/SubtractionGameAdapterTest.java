@@ -0,0 +1,60 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.data;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class SubtractionGameAdapterTest {
+  private final Gson gson = new GsonBuilder()
+      .registerTypeAdapter(SubtractionGame.class, new SubtractionGameAdapter())
+      .create();
+
+  @Test
+  public void writesTheGameAndItsRules() {
+    SubtractionGame game = new SubtractionGame(SubtractionRules.CLASSIC);
+    game.takePlayerTurn(3);
+
+    JsonObject json = new JsonParser().parse(gson.toJson(game)).getAsJsonObject();
+
+    JsonArray history = json.getAsJsonArray("history");
+    Assert.assertEquals(game.getHistory().size(), history.size());
+    Assert.assertEquals(game.getHistory().get(0), history.get(0).getAsString());
+    Assert.assertEquals(game.getCurrentTotal(), json.get("currentTotal").getAsInt());
+    Assert.assertEquals(game.isGameOver(), json.get("gameOver").getAsBoolean());
+    Assert.assertEquals(21, json.get("startingTotal").getAsInt());
+    Assert.assertEquals("[1,2,3]", json.get("moves").toString());
+  }
+
+  @Test
+  public void writesNullAsNull() {
+    Assert.assertEquals("null", gson.toJson(null, SubtractionGame.class));
+  }
+
+  @Test(expected = JsonParseException.class)
+  public void readIsRejected() {
+    gson.fromJson("{\"currentTotal\": 21}", SubtractionGame.class);
+  }
+}
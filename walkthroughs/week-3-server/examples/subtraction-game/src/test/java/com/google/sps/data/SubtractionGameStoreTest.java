@@ -0,0 +1,98 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.data;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class SubtractionGameStoreTest {
+  private static final int MAX_GAMES = 10;
+  private static final long MAX_IDLE_MILLIS = 1000;
+
+  private AtomicLong now;
+  private SubtractionGameStore store;
+
+  @Before
+  public void setUp() {
+    now = new AtomicLong();
+    store = new SubtractionGameStore(
+        SubtractionRules.CLASSIC, MAX_GAMES, MAX_IDLE_MILLIS, now::get);
+  }
+
+  @Test
+  public void findReturnsTheStartedGame() {
+    SubtractionGame started = store.start("a");
+
+    Assert.assertSame(started, store.find("a"));
+    Assert.assertNull(store.find("b"));
+  }
+
+  @Test
+  public void startReplacesTheGame() {
+    SubtractionGame first = store.start("a");
+    SubtractionGame second = store.start("a");
+
+    Assert.assertNotSame(first, second);
+    Assert.assertSame(second, store.find("a"));
+    Assert.assertEquals(1, store.size());
+  }
+
+  @Test
+  public void fullStoreEvictsLeastRecentlyUsed() {
+    for (int i = 0; i < MAX_GAMES; i++) {
+      store.start("session" + i);
+      now.incrementAndGet();
+    }
+    // Using the oldest game makes it the most recently used.
+    store.find("session0");
+    now.incrementAndGet();
+
+    store.start("session" + MAX_GAMES);
+
+    // The store evicts down to 90% of its capacity, least recently used first.
+    Assert.assertEquals(MAX_GAMES * 9 / 10, store.size());
+    Assert.assertNotNull(store.find("session0"));
+    Assert.assertNull(store.find("session1"));
+    Assert.assertNull(store.find("session2"));
+    Assert.assertNotNull(store.find("session3"));
+    Assert.assertNotNull(store.find("session" + MAX_GAMES));
+  }
+
+  @Test
+  public void idleGamesAreSweptOnceAMinute() {
+    store.start("idle");
+    now.addAndGet(TimeUnit.MILLISECONDS.toNanos(MAX_IDLE_MILLIS) + 1);
+
+    // The game is idle, but the store does not sweep more than once a minute.
+    store.start("active");
+    Assert.assertEquals(2, store.size());
+
+    now.addAndGet(TimeUnit.MINUTES.toNanos(1));
+    store.find("active");
+    store.start("new");
+
+    Assert.assertNull(store.find("idle"));
+    Assert.assertNotNull(store.find("active"));
+    Assert.assertNotNull(store.find("new"));
+    Assert.assertEquals(2, store.size());
+  }
+}
@@ -0,0 +1,74 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.data;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class SubtractionRulesTest {
+
+  @Test
+  public void classicLosingTotalsAreMultiplesOfFour() {
+    SubtractionRules rules = SubtractionRules.CLASSIC;
+
+    for (int total = 1; total <= rules.getStartingTotal(); total++) {
+      Assert.assertEquals("total " + total, total % 4 != 0, rules.isWinning(total));
+    }
+  }
+
+  @Test
+  public void winningMoveLeavesAMultipleOfFour() {
+    SubtractionRules rules = SubtractionRules.CLASSIC;
+
+    for (int total = 1; total <= rules.getStartingTotal(); total++) {
+      if (total % 4 != 0) {
+        int move = rules.chooseMove(total);
+        Assert.assertEquals("total " + total, 0, Math.max(total - move, 0) % 4);
+      }
+    }
+  }
+
+  @Test
+  public void losingTotalsOfOtherMoves() {
+    // Any move of at least the total wins, so with moves of 1, 3 and 4 the first loss is at 5.
+    SubtractionRules rules = new SubtractionRules(14, 1, 3, 4);
+    Set<Integer> losing = new HashSet<>(Arrays.asList(5, 7, 12, 14));
+
+    for (int total = 1; total <= 14; total++) {
+      Assert.assertEquals("total " + total, !losing.contains(total), rules.isWinning(total));
+    }
+  }
+
+  @Test
+  public void movesAreSortedAndDistinct() {
+    SubtractionRules rules = new SubtractionRules(10, 3, 1, 3, 2);
+
+    Assert.assertArrayEquals(new int[] {1, 2, 3}, rules.getMoves());
+    Assert.assertTrue(rules.isLegalMove(2));
+    Assert.assertFalse(rules.isLegalMove(4));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void movesMustBePositive() {
+    new SubtractionRules(10, 0, 1);
+  }
+}
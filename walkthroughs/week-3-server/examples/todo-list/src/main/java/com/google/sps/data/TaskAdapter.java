@@ -0,0 +1,47 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.data;
+
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
+
+/**
+ * Streams each {@code Task} of the list straight to the response as {"id", "title",
+ * "timestamp"}, without reflection or an intermediate JSON tree. Tasks are created from form
+ * posts, never parsed from JSON, so {@code read} rejects its input.
+ */
+public final class TaskAdapter extends TypeAdapter<Task> {
+  @Override
+  public void write(JsonWriter out, Task task) throws IOException {
+    if (task == null) {
+      out.nullValue();
+      return;
+    }
+    out.beginObject();
+    out.name("id").value(task.getId());
+    out.name("title").value(task.getTitle());
+    out.name("timestamp").value(task.getTimestamp());
+    out.endObject();
+  }
+
+  @Override
+  public Task read(JsonReader in) {
+    throw new JsonParseException("Cannot read a Task from JSON at " + in.getPath()
+        + ": TaskAdapter only writes tasks; new tasks come from the /new-task form");
+  }
+}
@@ -21,7 +21,9 @@ import com.google.appengine.api.datastore.PreparedQuery;
 import com.google.appengine.api.datastore.Query;
 import com.google.appengine.api.datastore.Query.SortDirection;
 import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
 import com.google.sps.data.Task;
+import com.google.sps.data.TaskAdapter;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
@@ -34,11 +36,21 @@ import javax.servlet.http.HttpServletResponse;
 @WebServlet("/list-tasks")
 public class ListTasksServlet extends HttpServlet {
 
+  // The list is fetched on every page load, so the Datastore client and the Gson with its task
+  // adapter are built once in init() and shared by all requests.
+  private DatastoreService datastore;
+  private Gson gson;
+
+  @Override
+  public void init() {
+    datastore = DatastoreServiceFactory.getDatastoreService();
+    gson = new GsonBuilder().registerTypeAdapter(Task.class, new TaskAdapter()).create();
+  }
+
   @Override
   public void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
     Query query = new Query("Task").addSort("timestamp", SortDirection.DESCENDING);
 
-    DatastoreService datastore = DatastoreServiceFactory.getDatastoreService();
     PreparedQuery results = datastore.prepare(query);
 
     List<Task> tasks = new ArrayList<>();
@@ -51,9 +63,8 @@ public class ListTasksServlet extends HttpServlet {
       tasks.add(task);
     }
 
-    Gson gson = new Gson();
-
     response.setContentType("application/json;");
-    response.getWriter().println(gson.toJson(tasks));
+    // Stream the tasks to the response instead of building the whole JSON string first.
+    gson.toJson(tasks, response.getWriter());
   }
 }
@@ -0,0 +1,90 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.data;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+
+/**
+ * An append-only file of votes, one choice per line, which is replayed when it is opened so that
+ * votes survive a restart.
+ *
+ * <p>Each vote is handed to the operating system before {@code append} returns, so it survives the
+ * process stopping, but it is not forced to disk. A line cut short by a crash is dropped when the
+ * log is next opened.
+ */
+public final class VoteLog implements Closeable {
+  private final FileChannel channel;
+
+  /**
+   * Opens the log at 'file', creating it if it does not exist, and passes every vote already in it
+   * to 'replay' in the order they were cast.
+   */
+  public VoteLog(Path file, Consumer<String> replay) throws IOException {
+    channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+        StandardOpenOption.WRITE);
+    long end = replay(replay);
+    // Drop any partial line so the next vote starts on a line of its own.
+    channel.truncate(end);
+    channel.position(end);
+  }
+
+  /**
+   * Appends a vote for 'choice', which must not contain a line break. Votes are written one at a
+   * time so that lines never interleave.
+   */
+  public synchronized void append(String choice) throws IOException {
+    ByteBuffer line = StandardCharsets.UTF_8.encode(choice + "\n");
+    while (line.hasRemaining()) {
+      channel.write(line);
+    }
+  }
+
+  @Override
+  public synchronized void close() throws IOException {
+    channel.close();
+  }
+
+  /** Passes every complete line to 'replay' and returns the offset just past the last of them. */
+  private long replay(Consumer<String> replay) throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate(8192);
+    ByteArrayOutputStream line = new ByteArrayOutputStream();
+    long end = 0;
+    long position = 0;
+    while (channel.read(buffer, position) > 0) {
+      buffer.flip();
+      while (buffer.hasRemaining()) {
+        byte b = buffer.get();
+        position++;
+        if (b == '\n') {
+          replay.accept(new String(line.toByteArray(), StandardCharsets.UTF_8));
+          line.reset();
+          end = position;
+        } else {
+          line.write(b);
+        }
+      }
+      buffer.clear();
+    }
+    return end;
+  }
+}
@@ -0,0 +1,49 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.data;
+
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts votes per choice. Each choice has its own {@link LongAdder}, so concurrent votes never
+ * lose updates and votes for the same choice spread their increments instead of contending.
+ */
+public final class VoteTally {
+  private final ConcurrentMap<String, LongAdder> votes = new ConcurrentHashMap<>();
+
+  /** Counts one vote for 'choice'. */
+  public void add(String choice) {
+    LongAdder count = votes.get(choice);
+    if (count == null) {
+      // computeIfAbsent locks part of the map even when the key is present, so only call it once.
+      count = votes.computeIfAbsent(choice, key -> new LongAdder());
+    }
+    count.increment();
+  }
+
+  /** Returns the current votes for every choice, sorted by choice. */
+  public SortedMap<String, Long> snapshot() {
+    SortedMap<String, Long> snapshot = new TreeMap<>();
+    for (Map.Entry<String, LongAdder> entry : votes.entrySet()) {
+      snapshot.put(entry.getKey(), entry.getValue().sum());
+    }
+    return snapshot;
+  }
+}
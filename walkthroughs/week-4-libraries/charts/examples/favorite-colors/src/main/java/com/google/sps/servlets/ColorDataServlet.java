@@ -15,10 +15,12 @@
 package com.google.sps.servlets;
 
 import com.google.gson.Gson;
+import com.google.sps.data.VoteLog;
+import com.google.sps.data.VoteTally;
 import java.io.IOException;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Scanner;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import javax.servlet.ServletException;
 import javax.servlet.annotation.WebServlet;
 import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
@@ -28,22 +30,110 @@ import javax.servlet.http.HttpServletResponse;
 @WebServlet("/color-data")
 public class ColorDataServlet extends HttpServlet {
 
-  private Map<String, Integer> colorVotes = new HashMap<>();
+  // The file votes are logged to, so they survive a restart. If it is empty, votes are only kept
+  // in memory; the temporary directory is neither durable nor shared, so it is not a default.
+  private static final String VOTE_LOG_PROPERTY = "votes.logFile";
+
+  // Charts may be refreshed far more often than votes change, so they share a recent snapshot.
+  private static final long SNAPSHOT_MAX_AGE_NANOS = 250_000_000;
+
+  private static final int MAX_COLOR_LENGTH = 50;
+
+  private final VoteTally colorVotes = new VoteTally();
+  // Null if votes are only kept in memory.
+  private VoteLog voteLog;
+
+  // Gson is thread-safe, so one instance can serve every request.
+  private final Gson gson = new Gson();
+
+  private final Object snapshotLock = new Object();
+  private volatile Snapshot snapshot;
+
+  /** The votes serialized at one point in time. */
+  private static final class Snapshot {
+    final String json;
+    final long builtAtNanos;
+
+    Snapshot(String json, long builtAtNanos) {
+      this.json = json;
+      this.builtAtNanos = builtAtNanos;
+    }
+  }
+
+  @Override
+  public void init() throws ServletException {
+    String logFileProperty = System.getProperty(VOTE_LOG_PROPERTY, "").trim();
+    if (logFileProperty.isEmpty()) {
+      log(VOTE_LOG_PROPERTY + " is not set, so votes are only kept in memory and are lost when "
+          + "the instance stops");
+    } else {
+      Path logFile = Paths.get(logFileProperty);
+      try {
+        voteLog = new VoteLog(logFile, colorVotes::add);
+      } catch (IOException e) {
+        throw new ServletException("Could not open the vote log " + logFile, e);
+      }
+    }
+    snapshot = new Snapshot(gson.toJson(colorVotes.snapshot()), System.nanoTime());
+  }
+
+  @Override
+  public void destroy() {
+    if (voteLog == null) {
+      return;
+    }
+    try {
+      voteLog.close();
+    } catch (IOException e) {
+      log("Could not close the vote log", e);
+    }
+  }
 
   @Override
   public void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
     response.setContentType("application/json");
-    Gson gson = new Gson();
-    String json = gson.toJson(colorVotes);
-    response.getWriter().println(json);
+    response.getWriter().println(getSnapshot().json);
   }
 
   @Override
   public void doPost(HttpServletRequest request, HttpServletResponse response) throws IOException {
     String color = request.getParameter("color");
-    int currentVotes = colorVotes.containsKey(color) ? colorVotes.get(color) : 0;
-    colorVotes.put(color, currentVotes + 1);
+    if (!isValidColor(color)) {
+      response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Invalid color");
+      return;
+    }
+    // Log the vote first, so a vote is only counted once it will survive a restart.
+    if (voteLog != null) {
+      voteLog.append(color);
+    }
+    colorVotes.add(color);
 
     response.sendRedirect("/index.html");
   }
+
+  /**
+   * Returns a snapshot of the votes at most {@code SNAPSHOT_MAX_AGE_NANOS} old. Only one request
+   * rebuilds a stale snapshot, and others which find it stale at the same time reuse the result.
+   */
+  private Snapshot getSnapshot() {
+    Snapshot current = snapshot;
+    long now = System.nanoTime();
+    if (now - current.builtAtNanos < SNAPSHOT_MAX_AGE_NANOS) {
+      return current;
+    }
+    synchronized (snapshotLock) {
+      if (snapshot == current) {
+        snapshot = new Snapshot(gson.toJson(colorVotes.snapshot()), now);
+      }
+      return snapshot;
+    }
+  }
+
+  /** Returns whether 'color' is a non-empty single line short enough to chart. */
+  private static boolean isValidColor(String color) {
+    if (color == null || color.isEmpty() || color.length() > MAX_COLOR_LENGTH) {
+      return false;
+    }
+    return color.chars().noneMatch(Character::isISOControl);
+  }
 }
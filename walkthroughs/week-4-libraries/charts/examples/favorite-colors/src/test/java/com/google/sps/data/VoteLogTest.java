@@ -0,0 +1,80 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.data;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class VoteLogTest {
+  @Rule public final TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void replaysVotesInOrder() throws IOException {
+    Path file = folder.getRoot().toPath().resolve("votes.log");
+    try (VoteLog log = new VoteLog(file, vote -> Assert.fail("The new log has no votes"))) {
+      log.append("red");
+      log.append("blue");
+      log.append("red");
+    }
+
+    List<String> actual = replay(file);
+
+    Assert.assertEquals(Arrays.asList("red", "blue", "red"), actual);
+  }
+
+  @Test
+  public void dropsTruncatedLastLine() throws IOException {
+    Path file = folder.getRoot().toPath().resolve("votes.log");
+    Files.write(file, "red\nblue\ngre".getBytes(StandardCharsets.UTF_8));
+
+    List<String> actual = new ArrayList<>();
+    try (VoteLog log = new VoteLog(file, actual::add)) {
+      // The next vote must start on a line of its own, not finish the cut-off one.
+      log.append("green");
+    }
+
+    Assert.assertEquals(Arrays.asList("red", "blue"), actual);
+    Assert.assertEquals(Arrays.asList("red", "blue", "green"), replay(file));
+  }
+
+  @Test
+  public void keepsMultiByteVotes() throws IOException {
+    Path file = folder.getRoot().toPath().resolve("votes.log");
+    try (VoteLog log = new VoteLog(file, vote -> {})) {
+      log.append("vermelho é");
+    }
+
+    Assert.assertEquals(Arrays.asList("vermelho é"), replay(file));
+  }
+
+  private static List<String> replay(Path file) throws IOException {
+    List<String> votes = new ArrayList<>();
+    new VoteLog(file, votes::add).close();
+    return votes;
+  }
+}
@@ -0,0 +1,58 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.data;
+
+import java.util.SortedMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class VoteTallyTest {
+
+  @Test
+  public void snapshotIsSortedByChoice() {
+    VoteTally tally = new VoteTally();
+    tally.add("red");
+    tally.add("blue");
+    tally.add("red");
+
+    SortedMap<String, Long> actual = tally.snapshot();
+
+    Assert.assertEquals("{blue=1, red=2}", actual.toString());
+  }
+
+  @Test
+  public void concurrentVotesAreAllCounted() throws InterruptedException {
+    VoteTally tally = new VoteTally();
+    ExecutorService voters = Executors.newFixedThreadPool(4);
+    for (int i = 0; i < 4; i++) {
+      voters.execute(() -> {
+        for (int vote = 0; vote < 10_000; vote++) {
+          tally.add("red");
+        }
+      });
+    }
+    voters.shutdown();
+    Assert.assertTrue(voters.awaitTermination(1, TimeUnit.MINUTES));
+
+    Assert.assertEquals(Long.valueOf(40_000), tally.snapshot().get("red"));
+  }
+}
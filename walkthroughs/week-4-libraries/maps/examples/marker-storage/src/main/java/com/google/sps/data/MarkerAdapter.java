@@ -0,0 +1,47 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.data;
+
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
+
+/**
+ * Writes a {@code Marker} as the {"lat", "lng", "content"} object the map script places on the
+ * map, streaming it to the response instead of building a JSON tree first. Markers are posted as
+ * form parameters, so {@code read} rejects JSON input.
+ */
+public final class MarkerAdapter extends TypeAdapter<Marker> {
+  @Override
+  public void write(JsonWriter out, Marker marker) throws IOException {
+    if (marker == null) {
+      out.nullValue();
+      return;
+    }
+    out.beginObject();
+    out.name("lat").value(marker.getLat());
+    out.name("lng").value(marker.getLng());
+    out.name("content").value(marker.getContent());
+    out.endObject();
+  }
+
+  @Override
+  public Marker read(JsonReader in) {
+    throw new JsonParseException("Cannot read a Marker from JSON at " + in.getPath()
+        + ": MarkerAdapter only writes markers; new markers are posted as form parameters");
+  }
+}
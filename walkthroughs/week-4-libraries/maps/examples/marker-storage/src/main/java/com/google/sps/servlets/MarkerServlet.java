@@ -20,7 +20,9 @@ import com.google.appengine.api.datastore.Entity;
 import com.google.appengine.api.datastore.PreparedQuery;
 import com.google.appengine.api.datastore.Query;
 import com.google.sps.data.Marker;
+import com.google.sps.data.MarkerAdapter;
 import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -35,16 +37,24 @@ import org.jsoup.safety.Whitelist;
 @WebServlet("/markers")
 public class MarkerServlet extends HttpServlet {
 
+  // Each map load reads every marker and each click stores one; both paths share the Datastore
+  // client and the marker Gson set up in init().
+  private DatastoreService datastore;
+  private Gson gson;
+
+  @Override
+  public void init() {
+    datastore = DatastoreServiceFactory.getDatastoreService();
+    gson = new GsonBuilder().registerTypeAdapter(Marker.class, new MarkerAdapter()).create();
+  }
+
   /** Responds with a JSON array containing marker data. */
   @Override
   public void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
     response.setContentType("application/json");
 
     Collection<Marker> markers = getMarkers();
-    Gson gson = new Gson();
-    String json = gson.toJson(markers);
-
-    response.getWriter().println(json);
+    gson.toJson(markers, response.getWriter());
   }
 
   /** Accepts a POST request containing a new marker. */
@@ -62,7 +72,6 @@ public class MarkerServlet extends HttpServlet {
   private Collection<Marker> getMarkers() {
     Collection<Marker> markers = new ArrayList<>();
 
-    DatastoreService datastore = DatastoreServiceFactory.getDatastoreService();
     Query query = new Query("Marker");
     PreparedQuery results = datastore.prepare(query);
 
@@ -84,7 +93,6 @@ public class MarkerServlet extends HttpServlet {
     markerEntity.setProperty("lng", marker.getLng());
     markerEntity.setProperty("content", marker.getContent());
 
-    DatastoreService datastore = DatastoreServiceFactory.getDatastoreService();
     datastore.put(markerEntity);
   }
 }
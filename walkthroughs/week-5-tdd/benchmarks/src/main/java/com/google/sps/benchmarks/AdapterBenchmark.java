@@ -0,0 +1,148 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.benchmarks;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.reflect.TypeToken;
+import com.google.sps.data.Comment;
+import com.google.sps.data.CommentAdapter;
+import com.google.sps.data.Location;
+import com.google.sps.data.Marker;
+import com.google.sps.data.MarkerAdapter;
+import com.google.sps.data.Place;
+import com.google.sps.data.PlaceAdapter;
+import com.google.sps.data.Task;
+import com.google.sps.data.TaskAdapter;
+import java.io.CharArrayWriter;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures how fast the other apps stream their lists to a response: the portfolio's comments and
+ * places, the todo list's tasks and the map's markers. Each list is written by a shared
+ * reflective {@code Gson} and by a {@code Gson} with the app's own adapter.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AdapterBenchmark {
+  private static final Type COMMENTS = new TypeToken<List<Comment>>() {}.getType();
+  private static final Type PLACES = new TypeToken<List<Place>>() {}.getType();
+  private static final Type TASKS = new TypeToken<List<Task>>() {}.getType();
+  private static final Type MARKERS = new TypeToken<List<Marker>>() {}.getType();
+
+  @Param({"20", "1000"})
+  public int itemCount;
+
+  private final Gson reflectiveGson = new Gson();
+  private final Gson adapterGson = new GsonBuilder()
+      .registerTypeAdapter(Comment.class, new CommentAdapter())
+      .registerTypeAdapter(Place.class, new PlaceAdapter())
+      .registerTypeAdapter(Task.class, new TaskAdapter())
+      .registerTypeAdapter(Marker.class, new MarkerAdapter())
+      .create();
+  // Stands in for the response writer; reset before every write so only serializing is measured.
+  private final CharArrayWriter out = new CharArrayWriter();
+
+  private List<Comment> comments;
+  private List<Place> places;
+  private List<Task> tasks;
+  private List<Marker> markers;
+
+  @Setup
+  public void setUp() {
+    Random random = new Random(42);
+    comments = new ArrayList<>(itemCount);
+    places = new ArrayList<>(itemCount);
+    tasks = new ArrayList<>(itemCount);
+    markers = new ArrayList<>(itemCount);
+    for (int i = 0; i < itemCount; i++) {
+      double lat = random.nextDouble() * 180 - 90;
+      double lng = random.nextDouble() * 360 - 180;
+      comments.add(new Comment("Person " + i, "Comment number " + i + " about the site",
+          1_590_000_000_000L + i));
+      // Half of the places have been geocoded.
+      Location location =
+          i % 2 == 0 ? new Location("Place " + i, i + " Main St", lat, lng) : null;
+      places.add(new Place("Place " + i, "Visited in " + (2000 + i % 20), location));
+      tasks.add(new Task(i, "Task number " + i, 1_590_000_000_000L + i));
+      markers.add(new Marker(lat, lng, "Marker number " + i));
+    }
+  }
+
+  private int write(Gson gson, Object list, Type type) {
+    out.reset();
+    gson.toJson(list, type, out);
+    return out.size();
+  }
+
+  @Benchmark
+  public int commentsReflective() {
+    return write(reflectiveGson, comments, COMMENTS);
+  }
+
+  @Benchmark
+  public int commentsAdapter() {
+    return write(adapterGson, comments, COMMENTS);
+  }
+
+  @Benchmark
+  public int placesReflective() {
+    return write(reflectiveGson, places, PLACES);
+  }
+
+  @Benchmark
+  public int placesAdapter() {
+    return write(adapterGson, places, PLACES);
+  }
+
+  @Benchmark
+  public int tasksReflective() {
+    return write(reflectiveGson, tasks, TASKS);
+  }
+
+  @Benchmark
+  public int tasksAdapter() {
+    return write(adapterGson, tasks, TASKS);
+  }
+
+  @Benchmark
+  public int markersReflective() {
+    return write(reflectiveGson, markers, MARKERS);
+  }
+
+  @Benchmark
+  public int markersAdapter() {
+    return write(adapterGson, markers, MARKERS);
+  }
+}
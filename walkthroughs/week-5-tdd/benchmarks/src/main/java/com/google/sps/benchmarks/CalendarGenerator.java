@@ -0,0 +1,91 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.benchmarks;
+
+import com.google.sps.Event;
+import com.google.sps.TimeRange;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Builds synthetic calendars for the benchmarks. Calendars are generated from a fixed seed so that
+ * every run of a benchmark measures the same events.
+ */
+public final class CalendarGenerator {
+  private static final int MINUTES_PER_DAY = TimeRange.WHOLE_DAY.duration();
+  private static final int MIN_EVENT_MINUTES = 15;
+  private static final int MAX_EVENT_MINUTES = 120;
+
+  private final int peopleCount;
+  private final Random random;
+
+  /**
+   * Creates a generator.
+   *
+   * @param peopleCount The number of distinct people who can attend events. Must be positive.
+   * @param seed The seed for the random number generator.
+   */
+  public CalendarGenerator(int peopleCount, long seed) {
+    if (peopleCount <= 0) {
+      throw new IllegalArgumentException("peopleCount must be positive");
+    }
+    this.peopleCount = peopleCount;
+    this.random = new Random(seed);
+  }
+
+  /** Returns the name used for the person with the given number. */
+  public static String person(int index) {
+    return "Person " + index;
+  }
+
+  /**
+   * Generates a calendar.
+   *
+   * @param eventCount The number of events in the calendar.
+   * @param attendeesPerEvent The number of people attending each event.
+   * @param overlapDensity How tightly the events are packed, from 0 (start times spread over the
+   *     whole day) to 1 (every event starts within the same short window of the day).
+   */
+  public List<Event> generate(int eventCount, int attendeesPerEvent, double overlapDensity) {
+    if (overlapDensity < 0 || overlapDensity > 1) {
+      throw new IllegalArgumentException("overlapDensity must be between 0 and 1");
+    }
+    int attendees = Math.min(attendeesPerEvent, peopleCount);
+    int window = Math.max(1, (int) ((MINUTES_PER_DAY - MAX_EVENT_MINUTES) * (1 - overlapDensity)));
+    int windowStart = random.nextInt(MINUTES_PER_DAY - MAX_EVENT_MINUTES - window + 1);
+
+    List<Event> events = new ArrayList<>(eventCount);
+    for (int i = 0; i < eventCount; i++) {
+      int start = windowStart + random.nextInt(window);
+      int duration =
+          MIN_EVENT_MINUTES + random.nextInt(MAX_EVENT_MINUTES - MIN_EVENT_MINUTES + 1);
+      events.add(new Event("Event " + i, TimeRange.fromStartDuration(start, duration),
+          pickPeople(attendees)));
+    }
+    return events;
+  }
+
+  /** Returns 'count' distinct people chosen at random. */
+  public List<String> pickPeople(int count) {
+    List<String> people = new ArrayList<>(count);
+    // Take consecutive people from a random offset so they are distinct without a set.
+    int first = random.nextInt(peopleCount);
+    for (int i = 0; i < count; i++) {
+      people.add(person((first + i) % peopleCount));
+    }
+    return people;
+  }
+}
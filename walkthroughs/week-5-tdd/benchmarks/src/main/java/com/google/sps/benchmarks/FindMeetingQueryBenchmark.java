@@ -0,0 +1,104 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.benchmarks;
+
+import com.google.sps.Event;
+import com.google.sps.EventIndex;
+import com.google.sps.FindMeetingQuery;
+import com.google.sps.MeetingRequest;
+import com.google.sps.TimeRange;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the latency of {@code FindMeetingQuery} over synthetic calendars. Run with
+ * {@code -prof gc} to also report the allocation rate of each query.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FindMeetingQueryBenchmark {
+  private static final int PEOPLE = 500;
+  private static final int REQUEST_ATTENDEES = 5;
+  private static final int DURATION_30_MINUTES = 30;
+
+  @Param({"100", "1000", "10000"})
+  public int eventCount;
+
+  @Param({"1", "4", "16"})
+  public int attendeesPerEvent;
+
+  @Param({"0.0", "0.5", "0.9"})
+  public double overlapDensity;
+
+  private final FindMeetingQuery query = new FindMeetingQuery();
+  private List<Event> events;
+  private EventIndex index;
+  private MeetingRequest request;
+  private MeetingRequest requestWithBlockedOptional;
+
+  @Setup
+  public void setUp() {
+    CalendarGenerator generator = new CalendarGenerator(PEOPLE, 42);
+    events = generator.generate(eventCount, attendeesPerEvent, overlapDensity);
+    index = new EventIndex(events);
+    request = new MeetingRequest(generator.pickPeople(REQUEST_ATTENDEES), DURATION_30_MINUTES);
+
+    // An optional attendee who is busy all day forces the fallback to required attendees only.
+    String blockedPerson = "Blocked optional attendee";
+    List<String> blocked = new ArrayList<>();
+    blocked.add(blockedPerson);
+    events = new ArrayList<>(events);
+    events.add(new Event("Out of office", TimeRange.WHOLE_DAY, blocked));
+    index.add(events.get(events.size() - 1));
+    requestWithBlockedOptional =
+        new MeetingRequest(generator.pickPeople(REQUEST_ATTENDEES), DURATION_30_MINUTES);
+    requestWithBlockedOptional.addOptionalAttendee(blockedPerson);
+  }
+
+  /** A query over the raw events, including building the index. */
+  @Benchmark
+  public Collection<TimeRange> queryEvents() {
+    return query.query(events, request);
+  }
+
+  /** A query against an index that was built ahead of time. */
+  @Benchmark
+  public Collection<TimeRange> queryIndex() {
+    return query.query(index, request);
+  }
+
+  /** A query whose optional attendee cannot make any time, exercising the fallback path. */
+  @Benchmark
+  public Collection<TimeRange> queryOptionalFallback() {
+    return query.query(index, requestWithBlockedOptional);
+  }
+}
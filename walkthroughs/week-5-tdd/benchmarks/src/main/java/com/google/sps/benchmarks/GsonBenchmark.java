@@ -0,0 +1,79 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.benchmarks;
+
+import com.google.gson.Gson;
+import com.google.sps.Event;
+import com.google.sps.Json;
+import com.google.sps.TimeRange;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the cost of serializing a query answer the way a servlet would, comparing a new
+ * {@code Gson} per request with the shared instance from {@code Json.gson()}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GsonBenchmark {
+  @Param({"5", "100"})
+  public int rangeCount;
+
+  private final Gson sharedReflectiveGson = new Gson();
+  private List<TimeRange> ranges;
+
+  @Setup
+  public void setUp() {
+    List<Event> events = new CalendarGenerator(10, 42).generate(rangeCount, 1, 0.0);
+    ranges = new ArrayList<>(rangeCount);
+    for (Event event : events) {
+      ranges.add(event.getWhen());
+    }
+  }
+
+  /** Creates a {@code Gson} for every request, as the servlets used to. */
+  @Benchmark
+  public String newGsonPerRequest() {
+    return new Gson().toJson(ranges);
+  }
+
+  /** Reuses one {@code Gson}, which still serializes {@code TimeRange} by reflection. */
+  @Benchmark
+  public String sharedReflectiveGson() {
+    return sharedReflectiveGson.toJson(ranges);
+  }
+
+  /** Reuses the shared {@code Gson}, which serializes {@code TimeRange} with its adapter. */
+  @Benchmark
+  public String sharedGsonWithAdapter() {
+    return Json.gson().toJson(ranges);
+  }
+}
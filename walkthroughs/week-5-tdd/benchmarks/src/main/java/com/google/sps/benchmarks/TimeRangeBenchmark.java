@@ -0,0 +1,85 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.benchmarks;
+
+import com.google.sps.Event;
+import com.google.sps.TimeRange;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/** Measures the {@code TimeRange} operations the scheduler relies on. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TimeRangeBenchmark {
+  @Param({"100", "10000"})
+  public int rangeCount;
+
+  @Param({"0.0", "0.9"})
+  public double overlapDensity;
+
+  private List<TimeRange> ranges;
+
+  @Setup
+  public void setUp() {
+    List<Event> events =
+        new CalendarGenerator(100, 42).generate(rangeCount, 1, overlapDensity);
+    ranges = new ArrayList<>(rangeCount);
+    for (Event event : events) {
+      ranges.add(event.getWhen());
+    }
+  }
+
+  /** Compares each range with its neighbour using {@code overlaps}. */
+  @Benchmark
+  public void overlaps(Blackhole blackhole) {
+    for (int i = 1; i < ranges.size(); i++) {
+      blackhole.consume(ranges.get(i - 1).overlaps(ranges.get(i)));
+    }
+  }
+
+  /** Compares each range with its neighbour using {@code contains}. */
+  @Benchmark
+  public void contains(Blackhole blackhole) {
+    for (int i = 1; i < ranges.size(); i++) {
+      blackhole.consume(ranges.get(i - 1).contains(ranges.get(i)));
+    }
+  }
+
+  /** Sorts a fresh copy of the ranges by start time. */
+  @Benchmark
+  public List<TimeRange> sortByStart() {
+    List<TimeRange> sorted = new ArrayList<>(ranges);
+    Collections.sort(sorted, TimeRange.ORDER_BY_START);
+    return sorted;
+  }
+}
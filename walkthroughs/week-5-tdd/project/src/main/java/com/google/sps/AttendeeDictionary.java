@@ -0,0 +1,111 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maps attendee names to dense {@code int} ids, starting at 0. Each name is hashed once when it
+ * is interned, after which attendee sets can be stored as sorted {@code int[]}s and compared
+ * without touching any strings. Dictionaries are safe to use from multiple threads.
+ *
+ * <p>Ids only mean something within the dictionary which assigned them. Each {@code EventIndex},
+ * {@code MinuteMaskQuery} and {@code CalendarStore} has a dictionary of its own, so names are
+ * released along with the structure that needed them.
+ */
+public final class AttendeeDictionary {
+  /** The id returned for names which have never been interned. */
+  public static final int UNKNOWN = -1;
+
+  private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+  private volatile String[] names = new String[16];
+  private int size = 0;
+
+  /** Returns the id for 'name', assigning the next free id if the name is new. */
+  public int intern(String name) {
+    Integer id = ids.get(name);
+    if (id != null) {
+      return id;
+    }
+    synchronized (this) {
+      id = ids.get(name);
+      if (id != null) {
+        return id;
+      }
+      if (size == names.length) {
+        names = Arrays.copyOf(names, size * 2);
+      }
+      names[size] = name;
+      // Publish the name before the id so that anyone who can see the id can also look it up.
+      ids.put(name, size);
+      return size++;
+    }
+  }
+
+  /** Returns the id for 'name' without assigning one, or {@code UNKNOWN} if it has none. */
+  public int idOf(String name) {
+    Integer id = ids.get(name);
+    return id == null ? UNKNOWN : id;
+  }
+
+  /** Returns the name which was assigned 'id'. */
+  public String nameOf(int id) {
+    String[] current = names;
+    if (id < 0 || id >= current.length || current[id] == null) {
+      throw new IllegalArgumentException("Unknown attendee id: " + id);
+    }
+    return current[id];
+  }
+
+  /** Interns every name and returns their ids sorted in ascending order, without duplicates. */
+  public int[] internAll(Collection<String> names) {
+    int[] result = new int[names.size()];
+    int count = 0;
+    for (String name : names) {
+      result[count++] = intern(name);
+    }
+    return sortedUnique(result, count);
+  }
+
+  /**
+   * Returns the ids of the names which have been interned, sorted in ascending order. Names
+   * without an id are skipped, since nobody with that name can be attending an event.
+   */
+  public int[] idsOf(Collection<String> names) {
+    int[] result = new int[names.size()];
+    int count = 0;
+    for (String name : names) {
+      int id = idOf(name);
+      if (id != UNKNOWN) {
+        result[count++] = id;
+      }
+    }
+    return sortedUnique(result, count);
+  }
+
+  private static int[] sortedUnique(int[] ids, int count) {
+    Arrays.sort(ids, 0, count);
+    int unique = 0;
+    for (int i = 0; i < count; i++) {
+      if (unique == 0 || ids[unique - 1] != ids[i]) {
+        ids[unique++] = ids[i];
+      }
+    }
+    return unique == ids.length ? ids : Arrays.copyOf(ids, unique);
+  }
+}
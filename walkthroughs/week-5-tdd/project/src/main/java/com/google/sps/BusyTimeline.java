@@ -0,0 +1,196 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The busy time of one person over an unbounded timeline of epoch minutes. Busy ranges are merged
+ * as they are added, so the stored ranges never overlap and are sorted by both start and end.
+ *
+ * <p>Ranges are packed with {@code TimeRangeList.pack} and kept in fixed-size chunks rather than
+ * one big array, so adding a range to a calendar that spans months only shifts the contents of a
+ * single chunk.
+ */
+final class BusyTimeline {
+  static final int CHUNK_SIZE = 128;
+
+  private final List<Chunk> chunks = new ArrayList<>();
+  private int size = 0;
+
+  /** Returns the number of disjoint busy ranges. */
+  int size() {
+    return size;
+  }
+
+  /** Marks {@code [start, end)} as busy, merging it with any ranges it overlaps or touches. */
+  void add(int start, int end) {
+    if (end <= start) {
+      return;
+    }
+    // Find the first range which ends at or after 'start'; it is the first that could merge.
+    int chunkIndex = firstChunkEndingAtOrAfter(start);
+    int offset =
+        chunkIndex < chunks.size() ? chunks.get(chunkIndex).firstEndingAtOrAfter(start) : 0;
+
+    // Absorb every range which starts at or before the end of the new range.
+    while (chunkIndex < chunks.size()) {
+      Chunk chunk = chunks.get(chunkIndex);
+      if (offset >= chunk.size) {
+        chunkIndex++;
+        offset = 0;
+        continue;
+      }
+      long range = chunk.ranges[offset];
+      if (TimeRangeList.start(range) > end) {
+        break;
+      }
+      start = Math.min(start, TimeRangeList.start(range));
+      end = Math.max(end, TimeRangeList.end(range));
+      chunk.remove(offset);
+      size--;
+      if (chunk.size == 0) {
+        chunks.remove(chunkIndex);
+        offset = 0;
+      }
+    }
+    insert(chunkIndex, offset, TimeRangeList.pack(start, end));
+  }
+
+  /** Returns a cursor at the first busy range which ends after 'from'. */
+  Cursor cursorAt(int from) {
+    int chunkIndex = firstChunkEndingAtOrAfter(from + 1);
+    int offset =
+        chunkIndex < chunks.size() ? chunks.get(chunkIndex).firstEndingAtOrAfter(from + 1) : 0;
+    return new Cursor(chunkIndex, offset);
+  }
+
+  private void insert(int chunkIndex, int offset, long range) {
+    size++;
+    if (chunks.isEmpty()) {
+      Chunk chunk = new Chunk();
+      chunk.insert(0, range);
+      chunks.add(chunk);
+      return;
+    }
+    if (chunkIndex >= chunks.size()) {
+      // The range goes after everything else; append it to the last chunk.
+      chunkIndex = chunks.size() - 1;
+      offset = chunks.get(chunkIndex).size;
+    }
+    Chunk chunk = chunks.get(chunkIndex);
+    if (chunk.size == CHUNK_SIZE) {
+      // Split the full chunk in half before inserting.
+      Chunk upper = chunk.splitUpperHalf();
+      chunks.add(chunkIndex + 1, upper);
+      if (offset > chunk.size) {
+        offset -= chunk.size;
+        chunk = upper;
+      }
+    }
+    chunk.insert(offset, range);
+  }
+
+  /**
+   * Returns the index of the first chunk whose last range ends at or after 'time', or the number
+   * of chunks if there is none. Ends are sorted because the ranges are disjoint.
+   */
+  private int firstChunkEndingAtOrAfter(int time) {
+    int low = 0;
+    int high = chunks.size();
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      if (chunks.get(middle).lastEnd() < time) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return low;
+  }
+
+  /** A position in the timeline which walks forward through the busy ranges. */
+  final class Cursor {
+    private int chunkIndex;
+    private int offset;
+
+    private Cursor(int chunkIndex, int offset) {
+      this.chunkIndex = chunkIndex;
+      this.offset = offset;
+    }
+
+    /** Returns whether the cursor points at a range. */
+    boolean hasRange() {
+      return chunkIndex < chunks.size();
+    }
+
+    /** Returns the packed range the cursor points at. */
+    long range() {
+      return chunks.get(chunkIndex).ranges[offset];
+    }
+
+    /** Moves to the next range. */
+    void advance() {
+      if (++offset >= chunks.get(chunkIndex).size) {
+        chunkIndex++;
+        offset = 0;
+      }
+    }
+  }
+
+  private static final class Chunk {
+    private long[] ranges = new long[CHUNK_SIZE];
+    private int size = 0;
+
+    int lastEnd() {
+      return TimeRangeList.end(ranges[size - 1]);
+    }
+
+    int firstEndingAtOrAfter(int time) {
+      int low = 0;
+      int high = size;
+      while (low < high) {
+        int middle = (low + high) >>> 1;
+        if (TimeRangeList.end(ranges[middle]) < time) {
+          low = middle + 1;
+        } else {
+          high = middle;
+        }
+      }
+      return low;
+    }
+
+    void insert(int offset, long range) {
+      System.arraycopy(ranges, offset, ranges, offset + 1, size - offset);
+      ranges[offset] = range;
+      size++;
+    }
+
+    void remove(int offset) {
+      System.arraycopy(ranges, offset + 1, ranges, offset, size - offset - 1);
+      size--;
+    }
+
+    Chunk splitUpperHalf() {
+      Chunk upper = new Chunk();
+      int half = size / 2;
+      upper.size = size - half;
+      System.arraycopy(ranges, half, upper.ranges, 0, upper.size);
+      size = half;
+      return upper;
+    }
+  }
+}
@@ -0,0 +1,126 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Stores when people are busy on a timeline that is not limited to a single day. Times are
+ * measured in epoch minutes (minutes since 1970-01-01T00:00Z), which fit in an {@code int} until
+ * the year 6053, so weeks or quarters can be searched with the same packed ranges used by
+ * {@code TimeRangeList}.
+ */
+public final class CalendarStore {
+  private static final int SECONDS_PER_MINUTE = 60;
+
+  // Timelines are stored by the attendee's id in 'dictionary'.
+  private final AttendeeDictionary dictionary = new AttendeeDictionary();
+  private final List<BusyTimeline> timelines = new ArrayList<>();
+
+  /** Returns the epoch minute containing 'instant'. */
+  public static int toEpochMinute(Instant instant) {
+    return Math.toIntExact(Math.floorDiv(instant.getEpochSecond(), SECONDS_PER_MINUTE));
+  }
+
+  /** Returns the instant at the start of 'epochMinute'. */
+  public static Instant toInstant(int epochMinute) {
+    return Instant.ofEpochSecond((long) epochMinute * SECONDS_PER_MINUTE);
+  }
+
+  /** Returns the epoch minute of midnight at the start of 'day' in 'zone'. */
+  public static int startOfDay(LocalDate day, ZoneId zone) {
+    return toEpochMinute(day.atStartOfDay(zone).toInstant());
+  }
+
+  /**
+   * Marks 'attendee' as busy from {@code start} (inclusive) to {@code end} (exclusive), both in
+   * epoch minutes.
+   */
+  public void addBusy(String attendee, int start, int end) {
+    int id = dictionary.intern(attendee);
+    while (timelines.size() <= id) {
+      timelines.add(null);
+    }
+    BusyTimeline timeline = timelines.get(id);
+    if (timeline == null) {
+      timeline = new BusyTimeline();
+      timelines.set(id, timeline);
+    }
+    timeline.add(start, end);
+  }
+
+  /**
+   * Adds a single-day {@code Event} which takes place on the day starting at the epoch minute
+   * 'startOfDay'.
+   */
+  public void addEvent(Event event, int startOfDay) {
+    int start = startOfDay + event.getWhen().start();
+    int end = startOfDay + event.getWhen().end();
+    for (String attendee : event.getAttendees()) {
+      addBusy(attendee, start, end);
+    }
+  }
+
+  /**
+   * Returns up to 'limit' of the earliest times between {@code from} (inclusive) and {@code to}
+   * (exclusive) when every one of 'attendees' is free for at least 'duration' minutes. Each slot is
+   * a whole free gap, in epoch minutes, so it may be longer than 'duration'.
+   *
+   * <p>The attendees' timelines are merged lazily, starting from the first busy range which ends
+   * after 'from', and the search stops as soon as 'limit' slots have been found. The cost depends
+   * on how far into the window the slots are, not on the size of the window.
+   */
+  public TimeRangeList findFreeSlots(Collection<String> attendees, int from, int to,
+      long duration, int limit) {
+    List<BusyTimeline.Cursor> cursors = new ArrayList<>();
+    for (int id : dictionary.idsOf(attendees)) {
+      BusyTimeline timeline = id < timelines.size() ? timelines.get(id) : null;
+      if (timeline != null) {
+        cursors.add(timeline.cursorAt(from));
+      }
+    }
+
+    TimeRangeList slots = new TimeRangeList();
+    int freeSince = from;
+    while (slots.size() < limit && freeSince < to) {
+      // Each timeline is already sorted, so the next busy range overall is the earliest of the
+      // ranges under the cursors. Calendars are searched for a handful of people at a time, so a
+      // linear scan beats a heap here.
+      BusyTimeline.Cursor next = null;
+      for (BusyTimeline.Cursor cursor : cursors) {
+        if (cursor.hasRange() && (next == null
+            || TimeRangeList.start(cursor.range()) < TimeRangeList.start(next.range()))) {
+          next = cursor;
+        }
+      }
+
+      int busyStart = next == null ? to : Math.min(TimeRangeList.start(next.range()), to);
+      if (busyStart - freeSince >= duration && busyStart > freeSince) {
+        slots.add(freeSince, busyStart);
+      }
+      if (next == null) {
+        break;
+      }
+      freeSince = Math.max(freeSince, TimeRangeList.end(next.range()));
+      next.advance();
+    }
+    return slots;
+  }
+}
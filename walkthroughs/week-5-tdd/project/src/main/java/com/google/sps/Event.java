@@ -14,10 +14,12 @@
 
 package com.google.sps;
 
+import java.util.AbstractSet;
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.Collections;
-import java.util.HashSet;
+import java.util.Iterator;
 import java.util.Set;
+import java.util.TreeSet;
 
 /**
  * Event is the container class for when a specific group of people are meeting and are therefore
@@ -26,7 +28,15 @@ import java.util.Set;
 public final class Event {
   private final String title;
   private final TimeRange when;
-  private final Set<String> attendees = new HashSet<>();
+
+  // The attendees are kept as a sorted array without duplicates rather than a set, which saves a
+  // hash table per event.
+  private final String[] attendees;
+
+  // The read-only view returned by {@code getAttendees()}, shared by every caller. Events read by
+  // Gson skip the constructor, so their array may be missing or unsorted; for them the view is
+  // built from a sorted copy when it is first needed.
+  private transient volatile AttendeeSet attendeeSet;
 
   /**
    * Creates a new event.
@@ -50,7 +60,9 @@ public final class Event {
 
     this.title = title;
     this.when = when;
-    this.attendees.addAll(attendees);
+    // Sort by name so that equal sets of attendees are stored as equal arrays.
+    this.attendees = new TreeSet<>(attendees).toArray(new String[0]);
+    this.attendeeSet = new AttendeeSet(this.attendees);
   }
 
   /**
@@ -71,9 +83,9 @@ public final class Event {
    * Returns a read-only set of required attendees for this event.
    */
   public Set<String> getAttendees() {
-    // Return the attendees as an unmodifiable set so that the caller can't change our
+    // Return the attendees as a read-only set view so that the caller can't change our
     // internal data.
-    return Collections.unmodifiableSet(attendees);
+    return attendeeSet();
   }
 
   @Override
@@ -89,8 +101,44 @@ public final class Event {
   }
 
   private static boolean equals(Event a, Event b) {
-    // {@code attendees} must be a set for equals to work as expected. According to the {@code Set}
-    // interface documentation, equals will check for set-equality across all set implementations.
-    return a.title.equals(b.title) && a.when.equals(b.when) && a.attendees.equals(b.attendees);
+    // {@code attendees} is sorted and has no duplicates, so comparing the arrays checks for
+    // set-equality.
+    return a.title.equals(b.title) && a.when.equals(b.when)
+        && Arrays.equals(a.attendeeSet().names, b.attendeeSet().names);
+  }
+
+  private AttendeeSet attendeeSet() {
+    AttendeeSet set = attendeeSet;
+    if (set == null) {
+      set = new AttendeeSet(attendees == null
+          ? new String[0]
+          : new TreeSet<>(Arrays.asList(attendees)).toArray(new String[0]));
+      attendeeSet = set;
+    }
+    return set;
+  }
+
+  /** A read-only set backed by a sorted array of names. */
+  private static final class AttendeeSet extends AbstractSet<String> {
+    private final String[] names;
+
+    AttendeeSet(String[] names) {
+      this.names = names;
+    }
+
+    @Override
+    public boolean contains(Object name) {
+      return name instanceof String && Arrays.binarySearch(names, name) >= 0;
+    }
+
+    @Override
+    public Iterator<String> iterator() {
+      return Arrays.asList(names).iterator();
+    }
+
+    @Override
+    public int size() {
+      return names.length;
+    }
   }
 }
@@ -0,0 +1,144 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An index from each attendee to the times when they are busy. Each attendee has a posting list
+ * of the {@code TimeRange}s of their events, kept sorted by start time, so a query only needs to
+ * look at the people it names rather than every event. Posting lists are stored by the attendee's
+ * id in the index's own {@code AttendeeDictionary}, so looking one up does not hash any strings.
+ */
+public final class EventIndex {
+  private final AttendeeDictionary dictionary = new AttendeeDictionary();
+  private final List<List<TimeRange>> busyRanges = new ArrayList<>();
+
+  /** Creates an empty index. */
+  public EventIndex() {}
+
+  /** Creates an index containing every event in {@code events}. */
+  public EventIndex(Event[] events) {
+    this(Arrays.asList(events));
+  }
+
+  /** Creates an index containing every event in {@code events}. */
+  public EventIndex(Collection<Event> events) {
+    for (Event event : events) {
+      add(event);
+    }
+  }
+
+  /** Adds an event to the posting list of each of its attendees. */
+  public void add(Event event) {
+    TimeRange when = event.getWhen();
+    for (int id : dictionary.internAll(event.getAttendees())) {
+      while (busyRanges.size() <= id) {
+        busyRanges.add(null);
+      }
+      List<TimeRange> ranges = busyRanges.get(id);
+      if (ranges == null) {
+        ranges = new ArrayList<>();
+        busyRanges.set(id, ranges);
+      }
+      ranges.add(insertionPoint(ranges, when), when);
+    }
+  }
+
+  /**
+   * Removes an event from the posting list of each of its attendees. Returns {@code true} if the
+   * event's time was found for at least one attendee.
+   */
+  public boolean remove(Event event) {
+    TimeRange when = event.getWhen();
+    boolean removed = false;
+    for (int id : dictionary.idsOf(event.getAttendees())) {
+      List<TimeRange> ranges = id < busyRanges.size() ? busyRanges.get(id) : null;
+      if (ranges == null) {
+        continue;
+      }
+      int index = indexOf(ranges, when);
+      if (index >= 0) {
+        ranges.remove(index);
+        removed = true;
+      }
+      if (ranges.isEmpty()) {
+        busyRanges.set(id, null);
+      }
+    }
+    return removed;
+  }
+
+  /**
+   * Returns a read-only list of the times when {@code attendee} is busy, sorted by start time.
+   * People without any events have an empty list.
+   */
+  public List<TimeRange> getBusyRanges(String attendee) {
+    return getBusyRanges(dictionary.idOf(attendee));
+  }
+
+  /**
+   * Returns the ids in this index of the 'attendees' who have any events, sorted in ascending
+   * order. Look the ids up once per query, then read their busy times with
+   * {@code getBusyRanges(int)}.
+   */
+  public int[] idsOf(Collection<String> attendees) {
+    return dictionary.idsOf(attendees);
+  }
+
+  /**
+   * Returns a read-only list of the times when the attendee with id 'attendeeId' in this index is
+   * busy, sorted by start time.
+   */
+  public List<TimeRange> getBusyRanges(int attendeeId) {
+    List<TimeRange> ranges =
+        attendeeId >= 0 && attendeeId < busyRanges.size() ? busyRanges.get(attendeeId) : null;
+    return ranges == null ? Collections.emptyList() : Collections.unmodifiableList(ranges);
+  }
+
+  /** Returns the index of the first range which starts after {@code range}. */
+  private static int insertionPoint(List<TimeRange> ranges, TimeRange range) {
+    int low = 0;
+    int high = ranges.size();
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      if (ranges.get(middle).start() <= range.start()) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return low;
+  }
+
+  /** Returns the index of a range equal to {@code range}, or -1 if there is none. */
+  private static int indexOf(List<TimeRange> ranges, TimeRange range) {
+    // Walk back from the insertion point over the ranges sharing the same start time.
+    for (int i = insertionPoint(ranges, range) - 1; i >= 0; i--) {
+      TimeRange candidate = ranges.get(i);
+      if (candidate.start() != range.start()) {
+        break;
+      }
+      if (candidate.equals(range)) {
+        return i;
+      }
+    }
+    return -1;
+  }
+}
@@ -0,0 +1,137 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An immutable version of the set of events, along with everything that can be computed from it
+ * ahead of time: the events serialized as UTF-8 JSON, the {@code EventIndex} of each attendee's
+ * busy times, and a bounded cache of query answers. A new snapshot is built whenever the events
+ * change, which throws away the cached answers along with the old snapshot.
+ */
+public final class EventSnapshot {
+  /** The most query answers a snapshot remembers. */
+  public static final int MAX_CACHED_ANSWERS = 1024;
+
+  private final long version;
+  private final List<Event> events;
+  private final byte[] eventsJson;
+  private final EventIndex index;
+  private final Map<RequestKey, byte[]> answers;
+
+  EventSnapshot(long version, Collection<Event> events) {
+    this.version = version;
+    this.events = Collections.unmodifiableList(new ArrayList<>(events));
+    this.eventsJson = Json.gson().toJson(this.events).getBytes(StandardCharsets.UTF_8);
+    this.index = new EventIndex(this.events);
+    this.answers = Collections.synchronizedMap(new LeastRecentlyUsedMap<>(MAX_CACHED_ANSWERS));
+  }
+
+  /** Returns a number which is larger for every newer snapshot. */
+  public long getVersion() {
+    return version;
+  }
+
+  /** Returns the events in this snapshot. */
+  public List<Event> getEvents() {
+    return events;
+  }
+
+  /**
+   * Returns the events serialized as UTF-8 JSON. The caller must not modify the returned array.
+   */
+  public byte[] getEventsJson() {
+    return eventsJson;
+  }
+
+  /** Returns the index of each attendee's busy times. It must not be modified. */
+  public EventIndex getIndex() {
+    return index;
+  }
+
+  /**
+   * Returns the possible meeting times for 'request' serialized as UTF-8 JSON. Requests with the
+   * same attendees, optional attendees and duration share one answer, in any attendee order. The
+   * caller must not modify the returned array.
+   */
+  public byte[] queryJson(MeetingRequest request) {
+    RequestKey key = new RequestKey(request);
+    byte[] answer = answers.get(key);
+    if (answer == null) {
+      Collection<TimeRange> times = new FindMeetingQuery().query(index, request);
+      answer = Json.gson().toJson(times).getBytes(StandardCharsets.UTF_8);
+      answers.put(key, answer);
+    }
+    return answer;
+  }
+
+  /** A meeting request with its attendees sorted, so that equal requests have equal keys. */
+  private static final class RequestKey {
+    private final String[] attendees;
+    private final String[] optionalAttendees;
+    private final long duration;
+
+    RequestKey(MeetingRequest request) {
+      this.attendees = sorted(request.getAttendees());
+      this.optionalAttendees = sorted(request.getOptionalAttendees());
+      this.duration = request.getDuration();
+    }
+
+    private static String[] sorted(Collection<String> names) {
+      String[] array = names.toArray(new String[0]);
+      Arrays.sort(array);
+      return array;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+      if (!(other instanceof RequestKey)) {
+        return false;
+      }
+      RequestKey key = (RequestKey) other;
+      return duration == key.duration && Arrays.equals(attendees, key.attendees)
+          && Arrays.equals(optionalAttendees, key.optionalAttendees);
+    }
+
+    @Override
+    public int hashCode() {
+      return (Arrays.hashCode(attendees) * 31 + Arrays.hashCode(optionalAttendees)) * 31
+          + Long.hashCode(duration);
+    }
+  }
+
+  /** A map which drops the least recently read entry once it holds more than 'capacity'. */
+  private static final class LeastRecentlyUsedMap<K, V> extends LinkedHashMap<K, V> {
+    private final int capacity;
+
+    LeastRecentlyUsedMap(int capacity) {
+      super(16, 0.75f, /* accessOrder= */ true);
+      this.capacity = capacity;
+    }
+
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+      return size() > capacity;
+    }
+  }
+}
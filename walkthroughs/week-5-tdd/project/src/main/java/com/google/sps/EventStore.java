@@ -0,0 +1,72 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Holds the current {@code EventSnapshot}. Readers get a consistent snapshot without locking;
+ * changes build a new snapshot and swap it in atomically, so nobody can see a cached answer from
+ * an older set of events.
+ */
+public final class EventStore {
+  private static final EventStore SHARED = new EventStore(Arrays.asList(Events.events));
+
+  private final AtomicReference<EventSnapshot> current;
+
+  /** Creates a store containing 'events'. */
+  public EventStore(Collection<Event> events) {
+    current = new AtomicReference<>(new EventSnapshot(0, events));
+  }
+
+  /** Returns the store of {@code Events.events} shared by the servlets. */
+  public static EventStore shared() {
+    return SHARED;
+  }
+
+  /** Returns the current snapshot. */
+  public EventSnapshot snapshot() {
+    return current.get();
+  }
+
+  /** Adds an event, replacing the current snapshot. */
+  public void add(Event event) {
+    update(event, true);
+  }
+
+  /** Removes one copy of an event, replacing the current snapshot if it was found. */
+  public void remove(Event event) {
+    update(event, false);
+  }
+
+  private void update(Event event, boolean add) {
+    while (true) {
+      EventSnapshot old = current.get();
+      List<Event> events = new ArrayList<>(old.getEvents());
+      boolean changed = add ? events.add(event) : events.remove(event);
+      if (!changed) {
+        return;
+      }
+      EventSnapshot updated = new EventSnapshot(old.getVersion() + 1, events);
+      if (current.compareAndSet(old, updated)) {
+        return;
+      }
+    }
+  }
+}
@@ -17,111 +17,189 @@ package com.google.sps;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashSet;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
 
 public final class FindMeetingQuery {
+  private static final int MINUTES_PER_DAY = TimeRange.WHOLE_DAY.duration();
 
-  /** General algorithm (first attempt, could be better optimized, generally runs in linear
-   * time except for calls to Collections.disjoint() in the getAllRelevantEvents() method): 
-   * 1. Get a list of all of the times when attendees are busy.
-   * 2. Sort the list by start time.
-   * 3. Loop through, and find all available times "between" these events; requires some amount
-   * of shifting around bounds to deal with edge cases regarding nested events.
-   * 4. Return a list of these times, only adding a time if it is longer than the proposed
-   * duration of the MeetingRequest. 
+  /** General algorithm (runs in O(n log n) time in the number of busy ranges):
+   * 1. Look up the busy times of every required and optional attendee in an {@code EventIndex}.
+   * 2. Sort the start and end points of those busy times and sweep over them once (see
+   * {@code IntervalSweep}), which yields the free times for the required attendees alone and for
+   * the required plus optional attendees at the same time.
+   * 3. Return the free times that include optional attendees, unless there are none and dropping
+   * the optional attendees could help, in which case return the required-only free times. Only
+   * times at least as long as the duration of the MeetingRequest are returned.
    */
   public Collection<TimeRange> query(Collection<Event> events, MeetingRequest request) {
-    // Run the algorithm the first time also including optional attendees.
-    boolean includeOptional = true;
-    Collection<TimeRange> relevantTimes = getAllRelevantEvents(events, request, includeOptional);
-    List<TimeRange> sortedTimes = sortTimesByStart(relevantTimes);
-    Collection<TimeRange> proposedSolution = getNonOverlappingTimes(sortedTimes, request);
-
-    // If there is no current solution and running the algorithm again without optional attendees
-    // has the possibility of finding a solution, do so.
+    return query(new EventIndex(events), request);
+  }
+
+  /**
+   * Same as {@code query(Collection<Event>, MeetingRequest)}, but reads the busy times from an
+   * existing index so only the posting lists of the requested attendees are visited.
+   */
+  public Collection<TimeRange> query(EventIndex index, MeetingRequest request) {
+    IntervalSweep sweep = new IntervalSweep();
+    addBusyRanges(index, index.idsOf(request.getAttendees()), true, sweep);
+    addBusyRanges(index, index.idsOf(request.getOptionalAttendees()), false, sweep);
+
+    TimeRangeList proposedSolution = sweep.freeForEveryone(request.getDuration());
+
+    // If there is no current solution and ignoring the optional attendees has the possibility of
+    // finding a solution, use the required-only times from the same sweep.
     if (proposedSolution.isEmpty() && !request.getAttendees().isEmpty() &&
         !request.getOptionalAttendees().isEmpty()) {
-      includeOptional = false;
-      relevantTimes = getAllRelevantEvents(events, request, includeOptional);
-      sortedTimes = sortTimesByStart(relevantTimes);
-      proposedSolution = getNonOverlappingTimes(sortedTimes, request);
+      proposedSolution = sweep.freeForRequired(request.getDuration());
     }
-    return proposedSolution;
+    // The ranges stay packed until the caller reads them, e.g. to serialize them to JSON.
+    return proposedSolution.asList();
   }
 
   /**
-   * Returns a Collection of only those TimeRanges which correspond to events
-   * with attendees common to the 'request' parameter.
-   * @param includeOptional indicates whether to also consider the optional attendees of
-   * the MeetingRequest.
+   * Answers many meeting requests against the same events. The events are indexed once and the
+   * requests are then answered in parallel on the common {@code ForkJoinPool}. The returned list
+   * holds the answer to each request in the same order as 'requests'.
    */
-  private Collection<TimeRange> getAllRelevantEvents(Collection<Event> events, MeetingRequest request,
-      boolean includeOptional) {
-    // Make a copy of the attendees list which can be modified to add optional attendees if need be.
-    Collection<String> attendees = new HashSet<>(request.getAttendees());
-    Collection<TimeRange> relevantTimes = new HashSet<>(); // Prevent duplicate times.
-    if (includeOptional) {
-      attendees.addAll(request.getOptionalAttendees());
+  public List<Collection<TimeRange>> queryAll(Collection<Event> events,
+      List<MeetingRequest> requests) {
+    return queryAll(new EventIndex(events), requests);
+  }
+
+  /**
+   * Same as {@code queryAll(Collection<Event>, List<MeetingRequest>)}, but reads the busy times
+   * from an existing index. The index must not be modified while the requests are answered.
+   */
+  public List<Collection<TimeRange>> queryAll(EventIndex index, List<MeetingRequest> requests) {
+    return queryEach(index, requests).stream()
+        .map(CompletableFuture::join)
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * Starts answering each of the 'requests' on the common {@code ForkJoinPool} and returns the
+   * pending answers in the same order as 'requests', so a caller can use each answer as soon as
+   * it is done. The index must not be modified until every answer is done.
+   */
+  public List<CompletableFuture<Collection<TimeRange>>> queryEach(EventIndex index,
+      List<MeetingRequest> requests) {
+    List<CompletableFuture<Collection<TimeRange>>> answers = new ArrayList<>(requests.size());
+    for (MeetingRequest request : requests) {
+      answers.add(CompletableFuture.supplyAsync(() -> query(index, request)));
     }
-    for (Event event : events) {
-      Collection<String> eventAttendees = event.getAttendees();
-      if (!Collections.disjoint(attendees, eventAttendees)) {
-        relevantTimes.add(event.getWhen());
+    return answers;
+  }
+
+  /** Adds the busy times of each of the 'attendeeIds' to the sweep. */
+  private void addBusyRanges(EventIndex index, int[] attendeeIds, boolean required,
+      IntervalSweep sweep) {
+    for (int attendeeId : attendeeIds) {
+      for (TimeRange range : index.getBusyRanges(attendeeId)) {
+        sweep.add(range, required);
       }
     }
-    return relevantTimes;
   }
 
   /**
-  * Returns a sorted (by start time) List<TimeRange> representing the Collection of events
-  * passed as a parameter. It is necessary to convert to a list for use of the sort() method.
-  */
-  private List<TimeRange> sortTimesByStart(Collection<TimeRange> times) {
-    List<TimeRange> sortedTimes = new ArrayList<>(times);
-    Collections.sort(sortedTimes, TimeRange.ORDER_BY_START);
-    return sortedTimes;
+   * Returns every time when all required attendees are free, ranked by how many optional
+   * attendees can also make it. Unlike {@code query}, optional attendees are not all-or-nothing.
+   *
+   * <p>General algorithm (runs in O(n + m * k) time for n busy ranges, m minutes in the day and k
+   * optional attendees):
+   * 1. Sweep over the busy ranges once, adding +1/-1 markers to a per-minute difference array for
+   * required attendees and another for optional attendees. Each optional attendee's ranges are
+   * merged first so someone who is double-booked is only counted once.
+   * 2. Take prefix sums to get, for each minute, whether a required attendee is busy and how many
+   * optional attendees are free.
+   * 3. For each count c from k down to 0, find the maximal runs of minutes when the required
+   * attendees are free and at least c optional attendees are free. Each run that is long enough
+   * is returned once, with the highest count it was found at.
+   */
+  public List<RankedTimeRange> queryRanked(Collection<Event> events, MeetingRequest request) {
+    return queryRanked(new EventIndex(events), request);
   }
 
-  /** Returns a Collection of only those times which do not overlap with any TimeRange in 'times'. */
-  private Collection<TimeRange> getNonOverlappingTimes(List<TimeRange> times, MeetingRequest request) {
-    Collection<TimeRange> complementTimes = new ArrayList<>();
-    if (times.isEmpty()) {
-      addIfProposedTimeIsLongEnough(TimeRange.WHOLE_DAY, request, complementTimes);
-      return complementTimes;
+  /**
+   * Same as {@code queryRanked(Collection<Event>, MeetingRequest)}, but reads the busy times from
+   * an existing index.
+   */
+  public List<RankedTimeRange> queryRanked(EventIndex index, MeetingRequest request) {
+    int[] requiredBusy = new int[MINUTES_PER_DAY + 1];
+    for (int attendeeId : index.idsOf(request.getAttendees())) {
+      for (TimeRange range : index.getBusyRanges(attendeeId)) {
+        addToDifference(requiredBusy, range.start(), range.end());
+      }
     }
-    // Add any time before the first event in the list.
-    if (TimeRange.START_OF_DAY != times.get(0).start()) {
-      TimeRange proposedSlot = TimeRange.fromStartEnd(TimeRange.START_OF_DAY, times.get(0).start(), false);
-      addIfProposedTimeIsLongEnough(proposedSlot, request, complementTimes);
+    int[] optionalBusy = new int[MINUTES_PER_DAY + 1];
+    for (int attendeeId : index.idsOf(request.getOptionalAttendees())) {
+      addMergedToDifference(optionalBusy, index.getBusyRanges(attendeeId));
     }
-    int current = 0;
-    int next = 1;
-    while (next < times.size()) {
-      // If there is any space between the current time and the next time, add it to the list.
-      // Otherwise, keep current time the same until the "next" event is one not entirely contained in the current one.
-      if (!times.get(current).overlaps(times.get(next))) {
-        TimeRange proposedSlot = TimeRange.fromStartEnd(times.get(current).end(), times.get(next).start(), false);
-        addIfProposedTimeIsLongEnough(proposedSlot, request, complementTimes);
-      }
-    	if (!times.get(current).contains(times.get(next))) {
-        current = next;
+
+    // Turn the difference arrays into the number of optional attendees available each minute, or
+    // -1 for minutes when a required attendee is busy.
+    int optionalCount = request.getOptionalAttendees().size();
+    int[] available = new int[MINUTES_PER_DAY];
+    int requiredDepth = 0;
+    int optionalDepth = 0;
+    for (int minute = 0; minute < MINUTES_PER_DAY; minute++) {
+      requiredDepth += requiredBusy[minute];
+      optionalDepth += optionalBusy[minute];
+      available[minute] = requiredDepth > 0 ? -1 : optionalCount - optionalDepth;
+    }
+
+    List<RankedTimeRange> ranked = new ArrayList<>();
+    for (int count = optionalCount; count >= 0; count--) {
+      int start = -1;
+      // A run which never drops to exactly 'count' was already reported at a higher count.
+      boolean hasExactCount = false;
+      for (int minute = 0; minute <= MINUTES_PER_DAY; minute++) {
+        boolean free = minute < MINUTES_PER_DAY && available[minute] >= count;
+        if (free) {
+          if (start < 0) {
+            start = minute;
+            hasExactCount = false;
+          }
+          hasExactCount |= available[minute] == count;
+        } else if (start >= 0) {
+          if (hasExactCount && minute - start >= request.getDuration()) {
+            ranked.add(new RankedTimeRange(TimeRange.fromStartEnd(start, minute, false), count));
+          }
+          start = -1;
+        }
       }
-      next++;
     }
-    // Add any time after the last time.
-    if (TimeRange.END_OF_DAY != times.get(current).end()) {
-      TimeRange proposedSlot = TimeRange.fromStartEnd(times.get(current).end(), TimeRange.END_OF_DAY, true);
-     	addIfProposedTimeIsLongEnough(proposedSlot, request, complementTimes);
+    Collections.sort(ranked, RankedTimeRange.ORDER_BY_RANK);
+    return ranked;
+  }
+
+  /** Marks the minutes from 'start' to 'end' (exclusive), clamped to the day, as busy. */
+  private static void addToDifference(int[] difference, int start, int end) {
+    start = Math.max(start, 0);
+    end = Math.min(end, MINUTES_PER_DAY);
+    if (start < end) {
+      difference[start]++;
+      difference[end]--;
     }
-    return complementTimes;
   }
 
-  private void addIfProposedTimeIsLongEnough(TimeRange proposedTime,
-  	  MeetingRequest request, Collection<TimeRange> times) {
-    if (proposedTime.duration() >= request.getDuration()) {
-      times.add(proposedTime);
+  /**
+   * Marks the union of 'ranges', which must be sorted by start time, as busy so that overlapping
+   * ranges of the same person only count once.
+   */
+  private static void addMergedToDifference(int[] difference, List<TimeRange> ranges) {
+    int mergedStart = 0;
+    int mergedEnd = -1;
+    for (TimeRange range : ranges) {
+      if (range.start() > mergedEnd) {
+        addToDifference(difference, mergedStart, mergedEnd);
+        mergedStart = range.start();
+        mergedEnd = range.end();
+      } else {
+        mergedEnd = Math.max(mergedEnd, range.end());
+      }
     }
+    addToDifference(difference, mergedStart, mergedEnd);
   }
-	
 }
@@ -0,0 +1,140 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Arrays;
+
+/**
+ * Computes the free time in a day from a set of busy ranges using a single sweep over their
+ * endpoints. Each busy range is tagged as belonging to either a required or an optional attendee,
+ * so the free time for required attendees only and the free time for everyone both come out of
+ * the same pass.
+ *
+ * <p>Endpoints are packed into a primitive {@code int[]} and sorted with {@code Arrays.sort}, and
+ * the free time is collected into a {@code TimeRangeList}, so the whole computation runs in
+ * O(n log n) time without boxing any values or allocating an object per range.
+ */
+public final class IntervalSweep {
+  // Each endpoint is packed as (time << 2) | (end bit << 1) | optional bit. Starts sort before
+  // ends at the same time, which keeps back-to-back ranges from producing an empty free slot.
+  private static final int END_BIT = 2;
+  private static final int OPTIONAL_BIT = 1;
+  private static final int INITIAL_CAPACITY = 16;
+
+  private int[] points = new int[INITIAL_CAPACITY];
+  private int size = 0;
+
+  private TimeRangeList freeForRequired;
+  private TimeRangeList freeForEveryone;
+
+  /**
+   * Adds a busy range to the sweep.
+   *
+   * @param range The time when someone is busy.
+   * @param required Whether the busy person is a required attendee of the meeting.
+   */
+  public void add(TimeRange range, boolean required) {
+    add(range.start(), range.end(), required);
+  }
+
+  /**
+   * Adds a busy range from {@code start} (inclusive) to {@code end} (exclusive) to the sweep.
+   */
+  public void add(int start, int end, boolean required) {
+    if (end <= start) {
+      // Empty ranges do not make anyone busy.
+      return;
+    }
+    if (size + 2 > points.length) {
+      points = Arrays.copyOf(points, points.length * 2);
+    }
+    int optionalBit = required ? 0 : OPTIONAL_BIT;
+    points[size++] = (start << 2) | optionalBit;
+    points[size++] = (end << 2) | END_BIT | optionalBit;
+    freeForRequired = null;
+    freeForEveryone = null;
+  }
+
+  /**
+   * Returns the free ranges of at least {@code duration} minutes when every required attendee is
+   * available. Busy ranges of optional attendees are ignored.
+   */
+  public TimeRangeList freeForRequired(long duration) {
+    sweep();
+    TimeRangeList free = freeForRequired.copy();
+    free.retainAtLeast(duration);
+    return free;
+  }
+
+  /**
+   * Returns the free ranges of at least {@code duration} minutes when every attendee, required or
+   * optional, is available.
+   */
+  public TimeRangeList freeForEveryone(long duration) {
+    sweep();
+    TimeRangeList free = freeForEveryone.copy();
+    free.retainAtLeast(duration);
+    return free;
+  }
+
+  /** Sorts the endpoints and walks them once, tracking how many ranges are open at each point. */
+  private void sweep() {
+    if (freeForRequired != null) {
+      return;
+    }
+    Arrays.sort(points, 0, size);
+
+    TimeRangeList required = new TimeRangeList();
+    TimeRangeList everyone = new TimeRangeList();
+    int requiredDepth = 0;
+    int everyoneDepth = 0;
+    int requiredFreeSince = TimeRange.START_OF_DAY;
+    int everyoneFreeSince = TimeRange.START_OF_DAY;
+
+    for (int i = 0; i < size; i++) {
+      int point = points[i];
+      int time = point >> 2;
+      boolean isEnd = (point & END_BIT) != 0;
+      boolean isRequired = (point & OPTIONAL_BIT) == 0;
+
+      if (isEnd) {
+        if (--everyoneDepth == 0) {
+          everyoneFreeSince = time;
+        }
+        if (isRequired && --requiredDepth == 0) {
+          requiredFreeSince = time;
+        }
+      } else {
+        if (everyoneDepth++ == 0) {
+          addIfNotEmpty(everyoneFreeSince, time, everyone);
+        }
+        if (isRequired && requiredDepth++ == 0) {
+          addIfNotEmpty(requiredFreeSince, time, required);
+        }
+      }
+    }
+    addIfNotEmpty(everyoneFreeSince, TimeRange.END_OF_DAY + 1, everyone);
+    addIfNotEmpty(requiredFreeSince, TimeRange.END_OF_DAY + 1, required);
+
+    freeForRequired = required;
+    freeForEveryone = everyone;
+  }
+
+  private static void addIfNotEmpty(int start, int end, TimeRangeList ranges) {
+    if (start < end) {
+      ranges.add(start, end);
+    }
+  }
+}
@@ -0,0 +1,37 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+/**
+ * Holds the {@code Gson} instance shared by the whole app. Gson is thread-safe and caches the
+ * adapter it builds for each type, so creating one per request throws that work away every time.
+ * The hottest types get hand-written adapters, which skip reflection entirely.
+ */
+public final class Json {
+  private static final Gson GSON =
+      new GsonBuilder().registerTypeAdapter(TimeRange.class, new TimeRangeAdapter()).create();
+
+  private Json() {
+    // Disallow instances.
+  }
+
+  /** Returns the shared {@code Gson} instance. */
+  public static Gson gson() {
+    return GSON;
+  }
+}
@@ -39,6 +39,10 @@ public final class MeetingRequest {
    * Returns a read-only copy of the people who are required to attend this meeting.
    */
   public Collection<String> getAttendees() {
+    // Requests created by Gson skip the field initializers, so a missing list is left as null.
+    if (attendees == null) {
+      return Collections.emptySet();
+    }
     return Collections.unmodifiableCollection(attendees);
   }
 
@@ -46,6 +50,9 @@ public final class MeetingRequest {
    * Returns a read-only copy of the people who are optional to attend this meeting.
    */
   public Collection<String> getOptionalAttendees() {
+    if (optional_attendees == null) {
+      return Collections.emptySet();
+    }
     return Collections.unmodifiableCollection(optional_attendees);
   }
 
@@ -0,0 +1,165 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * An alternate strategy to {@code FindMeetingQuery} which stores, for every attendee, a bitmap
+ * with one bit per minute of the day that is set when the attendee is busy. A query ORs together
+ * the bitmaps of the requested attendees and scans the result a word at a time, so its cost
+ * depends only on the number of attendees in the request and not on the number of events.
+ */
+public final class MinuteMaskQuery {
+  private static final int MINUTES_PER_DAY = TimeRange.WHOLE_DAY.duration();
+  private static final int WORDS = (MINUTES_PER_DAY + Long.SIZE - 1) / Long.SIZE;
+
+  // Masks are stored by the attendee's id in 'dictionary'.
+  private final AttendeeDictionary dictionary = new AttendeeDictionary();
+  private final List<long[]> busyMasks = new ArrayList<>();
+
+  /** Creates a strategy with no known events. */
+  public MinuteMaskQuery() {}
+
+  /** Creates a strategy which knows about every event in {@code events}. */
+  public MinuteMaskQuery(Collection<Event> events) {
+    for (Event event : events) {
+      add(event);
+    }
+  }
+
+  /**
+   * Marks every attendee of {@code event} as busy for the minutes of the event which fall within
+   * the day. Masks only record whether a minute is busy, so events cannot be removed again; build
+   * a new instance when events are deleted.
+   */
+  public void add(Event event) {
+    int start = Math.max(event.getWhen().start(), 0);
+    int end = Math.min(event.getWhen().end(), MINUTES_PER_DAY);
+    if (start >= end) {
+      return;
+    }
+    for (int id : dictionary.internAll(event.getAttendees())) {
+      while (busyMasks.size() <= id) {
+        busyMasks.add(null);
+      }
+      long[] mask = busyMasks.get(id);
+      if (mask == null) {
+        mask = new long[WORDS];
+        busyMasks.set(id, mask);
+      }
+      setRange(mask, start, end);
+    }
+  }
+
+  /**
+   * Returns the same times as {@code FindMeetingQuery.query} would for {@code request}: the free
+   * times of the required and optional attendees, or of the required attendees alone if including
+   * the optional attendees leaves no room.
+   */
+  public Collection<TimeRange> query(MeetingRequest request) {
+    long[] requiredBusy = new long[WORDS];
+    orMasks(dictionary.idsOf(request.getAttendees()), requiredBusy);
+    long[] everyoneBusy = Arrays.copyOf(requiredBusy, WORDS);
+    orMasks(dictionary.idsOf(request.getOptionalAttendees()), everyoneBusy);
+
+    TimeRangeList proposedSolution = findFreeRuns(everyoneBusy, request.getDuration());
+    if (proposedSolution.isEmpty() && !request.getAttendees().isEmpty() &&
+        !request.getOptionalAttendees().isEmpty()) {
+      proposedSolution = findFreeRuns(requiredBusy, request.getDuration());
+    }
+    return proposedSolution.asList();
+  }
+
+  private void orMasks(int[] attendeeIds, long[] busy) {
+    for (int id : attendeeIds) {
+      long[] mask = id < busyMasks.size() ? busyMasks.get(id) : null;
+      if (mask == null) {
+        continue;
+      }
+      for (int i = 0; i < WORDS; i++) {
+        busy[i] |= mask[i];
+      }
+    }
+  }
+
+  /** Returns every run of clear bits in 'busy' which is at least 'duration' minutes long. */
+  private static TimeRangeList findFreeRuns(long[] busy, long duration) {
+    TimeRangeList free = new TimeRangeList();
+    int start = nextClearBit(busy, 0);
+    while (start < MINUTES_PER_DAY) {
+      int end = nextSetBit(busy, start);
+      if (end - start >= duration) {
+        free.add(start, end);
+      }
+      start = nextClearBit(busy, end);
+    }
+    return free;
+  }
+
+  /** Returns the first set bit at or after 'from', or the end of the day if there is none. */
+  private static int nextSetBit(long[] mask, int from) {
+    if (from >= MINUTES_PER_DAY) {
+      return MINUTES_PER_DAY;
+    }
+    int index = from >>> 6;
+    long word = mask[index] & (-1L << from);
+    while (word == 0) {
+      if (++index == WORDS) {
+        return MINUTES_PER_DAY;
+      }
+      word = mask[index];
+    }
+    return Math.min(index * Long.SIZE + Long.numberOfTrailingZeros(word), MINUTES_PER_DAY);
+  }
+
+  /** Returns the first clear bit at or after 'from', or the end of the day if there is none. */
+  private static int nextClearBit(long[] mask, int from) {
+    if (from >= MINUTES_PER_DAY) {
+      return MINUTES_PER_DAY;
+    }
+    int index = from >>> 6;
+    long word = ~mask[index] & (-1L << from);
+    while (word == 0) {
+      if (++index == WORDS) {
+        return MINUTES_PER_DAY;
+      }
+      word = ~mask[index];
+    }
+    return Math.min(index * Long.SIZE + Long.numberOfTrailingZeros(word), MINUTES_PER_DAY);
+  }
+
+  /** Sets the bits from 'start' (inclusive) to 'end' (exclusive). */
+  private static void setRange(long[] mask, int start, int end) {
+    int startIndex = start >>> 6;
+    int endIndex = (end - 1) >>> 6;
+    // Shifts in Java only use the low six bits, so these select the bits of the first and last
+    // words which fall inside the range.
+    long firstWordMask = -1L << start;
+    long lastWordMask = -1L >>> -end;
+    if (startIndex == endIndex) {
+      mask[startIndex] |= firstWordMask & lastWordMask;
+      return;
+    }
+    mask[startIndex] |= firstWordMask;
+    for (int i = startIndex + 1; i < endIndex; i++) {
+      mask[i] = -1L;
+    }
+    mask[endIndex] |= lastWordMask;
+  }
+}
@@ -0,0 +1,77 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Comparator;
+
+/**
+ * A possible meeting time together with the number of optional attendees who are free for the
+ * whole of it. Ranked time ranges are considered read-only.
+ */
+public final class RankedTimeRange {
+  /**
+   * A comparator which puts the ranges that the most optional attendees can make first, breaking
+   * ties by start time.
+   */
+  public static final Comparator<RankedTimeRange> ORDER_BY_RANK =
+      new Comparator<RankedTimeRange>() {
+        @Override
+        public int compare(RankedTimeRange a, RankedTimeRange b) {
+          int byCount = Integer.compare(b.optionalAttendeeCount, a.optionalAttendeeCount);
+          return byCount != 0 ? byCount : TimeRange.ORDER_BY_START.compare(a.range, b.range);
+        }
+      };
+
+  private final TimeRange range;
+  private final int optionalAttendeeCount;
+
+  public RankedTimeRange(TimeRange range, int optionalAttendeeCount) {
+    this.range = range;
+    this.optionalAttendeeCount = optionalAttendeeCount;
+  }
+
+  /**
+   * Returns the meeting time.
+   */
+  public TimeRange getRange() {
+    return range;
+  }
+
+  /**
+   * Returns how many optional attendees are free for the whole meeting time.
+   */
+  public int getOptionalAttendeeCount() {
+    return optionalAttendeeCount;
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    return other instanceof RankedTimeRange && equals(this, (RankedTimeRange) other);
+  }
+
+  @Override
+  public int hashCode() {
+    return range.hashCode() * 31 + optionalAttendeeCount;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%s with %d optional", range, optionalAttendeeCount);
+  }
+
+  private static boolean equals(RankedTimeRange a, RankedTimeRange b) {
+    return a.optionalAttendeeCount == b.optionalAttendeeCount && a.range.equals(b.range);
+  }
+}
@@ -0,0 +1,236 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A growable list of time ranges stored as primitive values. Each range is packed into a single
+ * {@code long}, with the start in the high 32 bits and the (exclusive) end in the low 32 bits, so
+ * sorting the packed values orders the ranges by start time and then by end time.
+ *
+ * <p>All of the range arithmetic ({@code sort}, {@code merge}, {@code complement} and
+ * {@code intersect}) works directly on the packed values and never allocates a {@code TimeRange}.
+ * Use {@code asList} to get {@code TimeRange} objects, which are created only as they are read.
+ */
+public final class TimeRangeList {
+  private static final int INITIAL_CAPACITY = 8;
+  private static final long LOW_BITS = 0xFFFFFFFFL;
+
+  private long[] ranges;
+  private int size = 0;
+
+  /** Creates an empty list. */
+  public TimeRangeList() {
+    this(INITIAL_CAPACITY);
+  }
+
+  /** Creates an empty list with room for 'capacity' ranges before it needs to grow. */
+  public TimeRangeList(int capacity) {
+    ranges = new long[Math.max(capacity, 1)];
+  }
+
+  /** Packs a range from {@code start} (inclusive) to {@code end} (exclusive) into a long. */
+  public static long pack(int start, int end) {
+    return ((long) start << 32) | (end & LOW_BITS);
+  }
+
+  /** Returns the start of a packed range. */
+  public static int start(long range) {
+    return (int) (range >> 32);
+  }
+
+  /** Returns the exclusive end of a packed range. */
+  public static int end(long range) {
+    return (int) range;
+  }
+
+  /** Returns the number of ranges in the list. */
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /** Returns the packed range at 'index'. */
+  public long get(int index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+    }
+    return ranges[index];
+  }
+
+  /** Returns the start of the range at 'index'. */
+  public int start(int index) {
+    return start(get(index));
+  }
+
+  /** Returns the exclusive end of the range at 'index'. */
+  public int end(int index) {
+    return end(get(index));
+  }
+
+  /** Appends a range from {@code start} (inclusive) to {@code end} (exclusive). */
+  public void add(int start, int end) {
+    if (end < start) {
+      throw new IllegalArgumentException("end cannot come before start");
+    }
+    if (size == ranges.length) {
+      ranges = Arrays.copyOf(ranges, ranges.length * 2);
+    }
+    ranges[size++] = pack(start, end);
+  }
+
+  /** Appends a {@code TimeRange}. */
+  public void add(TimeRange range) {
+    add(range.start(), range.end());
+  }
+
+  /** Removes every range from the list without shrinking its storage. */
+  public void clear() {
+    size = 0;
+  }
+
+  /** Sorts the ranges by start time, then by end time, in place. */
+  public void sort() {
+    Arrays.sort(ranges, 0, size);
+  }
+
+  /**
+   * Merges overlapping and touching ranges in place, so that afterwards no two ranges share a
+   * minute and the list is sorted. Empty ranges are dropped.
+   */
+  public void merge() {
+    sort();
+    int merged = 0;
+    for (int i = 0; i < size; i++) {
+      int start = start(ranges[i]);
+      int end = end(ranges[i]);
+      if (start == end) {
+        continue;
+      }
+      if (merged > 0 && start <= end(ranges[merged - 1])) {
+        int mergedStart = start(ranges[merged - 1]);
+        int mergedEnd = Math.max(end(ranges[merged - 1]), end);
+        ranges[merged - 1] = pack(mergedStart, mergedEnd);
+      } else {
+        ranges[merged++] = pack(start, end);
+      }
+    }
+    size = merged;
+  }
+
+  /**
+   * Returns the parts of {@code [from, to)} which are not covered by any range in this list. The
+   * list must already be merged.
+   */
+  public TimeRangeList complement(int from, int to) {
+    TimeRangeList complement = new TimeRangeList(size + 1);
+    int freeSince = from;
+    for (int i = 0; i < size && freeSince < to; i++) {
+      int start = start(ranges[i]);
+      int end = end(ranges[i]);
+      if (start > freeSince) {
+        complement.add(freeSince, Math.min(start, to));
+      }
+      freeSince = Math.max(freeSince, end);
+    }
+    if (freeSince < to) {
+      complement.add(freeSince, to);
+    }
+    return complement;
+  }
+
+  /**
+   * Returns the parts of time covered by both this list and 'other'. Both lists must already be
+   * merged.
+   */
+  public TimeRangeList intersect(TimeRangeList other) {
+    TimeRangeList intersection = new TimeRangeList(Math.min(size, other.size) + 1);
+    int i = 0;
+    int j = 0;
+    while (i < size && j < other.size) {
+      int start = Math.max(start(ranges[i]), start(other.ranges[j]));
+      int end = Math.min(end(ranges[i]), end(other.ranges[j]));
+      if (start < end) {
+        intersection.add(start, end);
+      }
+      // Advance whichever range finishes first; the other may still overlap the next one.
+      if (end(ranges[i]) < end(other.ranges[j])) {
+        i++;
+      } else {
+        j++;
+      }
+    }
+    return intersection;
+  }
+
+  /** Removes, in place, every range shorter than 'duration' minutes. */
+  public void retainAtLeast(long duration) {
+    int kept = 0;
+    for (int i = 0; i < size; i++) {
+      if (end(ranges[i]) - start(ranges[i]) >= duration) {
+        ranges[kept++] = ranges[i];
+      }
+    }
+    size = kept;
+  }
+
+  /** Returns a copy of this list. */
+  public TimeRangeList copy() {
+    TimeRangeList copy = new TimeRangeList(size);
+    System.arraycopy(ranges, 0, copy.ranges, 0, size);
+    copy.size = size;
+    return copy;
+  }
+
+  /**
+   * Returns a read-only view of this list as {@code TimeRange} objects. A {@code TimeRange} is only
+   * created when an element of the view is read, such as when it is serialized to JSON.
+   */
+  public List<TimeRange> asList() {
+    return new TimeRangeView(this);
+  }
+
+  @Override
+  public String toString() {
+    return asList().toString();
+  }
+
+  // This is a named class rather than an anonymous one because Gson refuses to serialize
+  // anonymous classes.
+  private static final class TimeRangeView extends AbstractList<TimeRange> {
+    private final TimeRangeList list;
+
+    TimeRangeView(TimeRangeList list) {
+      this.list = list;
+    }
+
+    @Override
+    public TimeRange get(int index) {
+      long range = list.get(index);
+      return TimeRange.fromStartEnd(start(range), end(range), false);
+    }
+
+    @Override
+    public int size() {
+      return list.size;
+    }
+  }
+}
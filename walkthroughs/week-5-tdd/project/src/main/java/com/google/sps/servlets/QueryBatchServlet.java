@@ -0,0 +1,102 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import com.google.sps.EventStore;
+import com.google.sps.FindMeetingQuery;
+import com.google.sps.Json;
+import com.google.sps.MeetingRequest;
+import com.google.sps.TimeRange;
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Answers a JSON array of meeting requests with a JSON array of results, where each result is the
+ * list of possible times for the request at the same position. The requests are answered in
+ * parallel and each result is written as soon as it and the results before it are done.
+ */
+@WebServlet("/query-batch")
+public class QueryBatchServlet extends HttpServlet {
+  @Override
+  public void doPost(HttpServletRequest request, HttpServletResponse response) throws IOException {
+    Gson gson = Json.gson();
+
+    // Convert the JSON to a list of MeetingRequests.
+    MeetingRequest[] meetingRequests;
+    try {
+      meetingRequests = gson.fromJson(request.getReader(), MeetingRequest[].class);
+    } catch (JsonParseException e) {
+      response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Expected a JSON array of requests.");
+      return;
+    }
+    String error = validate(meetingRequests);
+    if (error != null) {
+      response.sendError(HttpServletResponse.SC_BAD_REQUEST, error);
+      return;
+    }
+
+    // Start finding the possible meeting times for every request.
+    FindMeetingQuery findMeetingQuery = new FindMeetingQuery();
+    List<CompletableFuture<Collection<TimeRange>>> answers =
+        findMeetingQuery.queryEach(EventStore.shared().snapshot().getIndex(),
+            Arrays.asList(meetingRequests));
+
+    // Write the answers in request order, each one as soon as it is done.
+    response.setContentType("application/json");
+    JsonWriter writer = new JsonWriter(response.getWriter());
+    writer.beginArray();
+    for (CompletableFuture<Collection<TimeRange>> answer : answers) {
+      writer.beginArray();
+      for (TimeRange range : answer.join()) {
+        gson.toJson(range, TimeRange.class, writer);
+      }
+      writer.endArray();
+      writer.flush();
+    }
+    writer.endArray();
+    writer.flush();
+  }
+
+  /** Returns why 'meetingRequests' can't be answered, or null if every request is well formed. */
+  private static String validate(MeetingRequest[] meetingRequests) {
+    if (meetingRequests == null) {
+      return "Expected a JSON array of requests.";
+    }
+    for (int i = 0; i < meetingRequests.length; i++) {
+      MeetingRequest meetingRequest = meetingRequests[i];
+      if (meetingRequest == null) {
+        return "Request " + i + " is null.";
+      }
+      if (meetingRequest.getAttendees().contains(null)
+          || meetingRequest.getOptionalAttendees().contains(null)) {
+        return "Request " + i + " has a null attendee.";
+      }
+      if (meetingRequest.getDuration() < 0) {
+        return "Request " + i + " has a negative duration.";
+      }
+    }
+    return null;
+  }
+}
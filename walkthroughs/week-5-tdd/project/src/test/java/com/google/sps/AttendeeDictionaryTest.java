@@ -0,0 +1,70 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Arrays;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class AttendeeDictionaryTest {
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+  private static final String PERSON_C = "Person C";
+
+  @Test
+  public void idsAreDenseAndStable() {
+    AttendeeDictionary dictionary = new AttendeeDictionary();
+
+    Assert.assertEquals(0, dictionary.intern(PERSON_A));
+    Assert.assertEquals(1, dictionary.intern(PERSON_B));
+    Assert.assertEquals(0, dictionary.intern(PERSON_A));
+    Assert.assertEquals(PERSON_B, dictionary.nameOf(1));
+    Assert.assertEquals(AttendeeDictionary.UNKNOWN, dictionary.idOf(PERSON_C));
+  }
+
+  @Test
+  public void internAllSortsAndRemovesDuplicates() {
+    AttendeeDictionary dictionary = new AttendeeDictionary();
+    dictionary.intern(PERSON_C);
+
+    int[] actual = dictionary.internAll(Arrays.asList(PERSON_B, PERSON_C, PERSON_B, PERSON_A));
+
+    Assert.assertArrayEquals(new int[] {0, 1, 2}, actual);
+  }
+
+  @Test
+  public void idsOfSkipsUnknownNames() {
+    AttendeeDictionary dictionary = new AttendeeDictionary();
+    dictionary.intern(PERSON_A);
+
+    Assert.assertArrayEquals(new int[] {0}, dictionary.idsOf(Arrays.asList(PERSON_A, PERSON_B)));
+  }
+
+  @Test
+  public void indexesAssignTheirOwnIds() {
+    EventIndex first = new EventIndex(Arrays.asList(new Event("Event 1",
+        TimeRange.fromStartDuration(0, 30), Arrays.asList(PERSON_A, PERSON_B, PERSON_A))));
+    EventIndex second = new EventIndex(Arrays.asList(
+        new Event("Event 2", TimeRange.fromStartDuration(0, 30), Arrays.asList(PERSON_B))));
+
+    Assert.assertArrayEquals(new int[] {1}, first.idsOf(Arrays.asList(PERSON_B, PERSON_C)));
+    Assert.assertArrayEquals(new int[] {0}, second.idsOf(Arrays.asList(PERSON_B, PERSON_C)));
+    Assert.assertArrayEquals(new int[] {}, second.idsOf(Arrays.asList(PERSON_A)));
+  }
+}
@@ -0,0 +1,126 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class CalendarStoreTest {
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+
+  private static final int MINUTES_PER_DAY = 24 * 60;
+
+  // Days of the first full week of 2020, in epoch minutes.
+  private static final int MONDAY =
+      CalendarStore.startOfDay(LocalDate.of(2020, 1, 6), ZoneOffset.UTC);
+  private static final int TUESDAY = MONDAY + MINUTES_PER_DAY;
+  private static final int WEDNESDAY = TUESDAY + MINUTES_PER_DAY;
+
+  private static final int TIME_0900AM = TimeRange.getTimeInMinutes(9, 0);
+  private static final int TIME_1700PM = TimeRange.getTimeInMinutes(17, 0);
+
+  private static final int DURATION_1_HOUR = 60;
+
+  @Test
+  public void epochMinutesRoundTrip() {
+    Instant instant = Instant.parse("2020-01-06T09:30:00Z");
+
+    Assert.assertEquals(instant, CalendarStore.toInstant(CalendarStore.toEpochMinute(instant)));
+    Assert.assertEquals(Instant.parse("2020-01-06T00:00:00Z"), CalendarStore.toInstant(MONDAY));
+  }
+
+  @Test
+  public void slotsSpanMultipleDays() {
+    // Person A works 9 to 5 every day; Person B is out all of Tuesday. The free slots are the
+    // nights, with Tuesday night merged into Wednesday's because B is away all day.
+    CalendarStore store = new CalendarStore();
+    for (int day : new int[] {MONDAY, TUESDAY, WEDNESDAY}) {
+      store.addBusy(PERSON_A, day + TIME_0900AM, day + TIME_1700PM);
+    }
+    store.addBusy(PERSON_B, TUESDAY, WEDNESDAY);
+
+    TimeRangeList slots = store.findFreeSlots(Arrays.asList(PERSON_A, PERSON_B), MONDAY,
+        WEDNESDAY + MINUTES_PER_DAY, DURATION_1_HOUR, 10);
+
+    TimeRangeList expected = new TimeRangeList();
+    expected.add(MONDAY, MONDAY + TIME_0900AM);
+    expected.add(MONDAY + TIME_1700PM, TUESDAY);
+    expected.add(WEDNESDAY, WEDNESDAY + TIME_0900AM);
+    expected.add(WEDNESDAY + TIME_1700PM, WEDNESDAY + MINUTES_PER_DAY);
+    Assert.assertEquals(expected.asList(), slots.asList());
+  }
+
+  @Test
+  public void stopsAfterLimit() {
+    // A calendar a quarter long, with an hour-long meeting at the start of every hour.
+    CalendarStore store = new CalendarStore();
+    int quarter = 90 * MINUTES_PER_DAY;
+    for (int time = MONDAY; time < MONDAY + quarter; time += 2 * DURATION_1_HOUR) {
+      store.addBusy(PERSON_A, time, time + DURATION_1_HOUR);
+    }
+
+    TimeRangeList slots = store.findFreeSlots(Collections.singleton(PERSON_A), MONDAY,
+        MONDAY + quarter, DURATION_1_HOUR, 3);
+
+    TimeRangeList expected = new TimeRangeList();
+    expected.add(MONDAY + 60, MONDAY + 120);
+    expected.add(MONDAY + 180, MONDAY + 240);
+    expected.add(MONDAY + 300, MONDAY + 360);
+    Assert.assertEquals(expected.asList(), slots.asList());
+  }
+
+  @Test
+  public void busyRangesMergeAcrossChunks() {
+    // Add enough disjoint ranges to split the timeline into several chunks, then one range that
+    // covers all of them.
+    CalendarStore store = new CalendarStore();
+    int count = BusyTimeline.CHUNK_SIZE * 4;
+    for (int i = count - 1; i >= 0; i--) {
+      store.addBusy(PERSON_A, MONDAY + i * 10, MONDAY + i * 10 + 5);
+    }
+    store.addBusy(PERSON_A, MONDAY + 3, MONDAY + count * 10 - 7);
+
+    TimeRangeList slots = store.findFreeSlots(Collections.singleton(PERSON_A), MONDAY,
+        MONDAY + count * 10 + 100, 1, 10);
+
+    TimeRangeList expected = new TimeRangeList();
+    expected.add(MONDAY + count * 10 - 5, MONDAY + count * 10 + 100);
+    Assert.assertEquals(expected.asList(), slots.asList());
+  }
+
+  @Test
+  public void singleDayEventsCanBeAdded() {
+    CalendarStore store = new CalendarStore();
+    store.addEvent(new Event("Event 1", TimeRange.fromStartEnd(TIME_0900AM, TIME_1700PM, false),
+        Arrays.asList(PERSON_B)), TUESDAY);
+
+    Collection<TimeRange> slots = store.findFreeSlots(Arrays.asList(PERSON_B), TUESDAY,
+        WEDNESDAY, DURATION_1_HOUR, 10).asList();
+
+    Assert.assertEquals(Arrays.asList(TimeRange.fromStartEnd(TUESDAY, TUESDAY + TIME_0900AM, false),
+        TimeRange.fromStartEnd(TUESDAY + TIME_1700PM, WEDNESDAY, false)), slots);
+  }
+}
@@ -0,0 +1,94 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Arrays;
+import java.util.Collection;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class EventIndexTest {
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+  private static final String PERSON_C = "Person C";
+
+  private static final int TIME_0800AM = TimeRange.getTimeInMinutes(8, 0);
+  private static final int TIME_0900AM = TimeRange.getTimeInMinutes(9, 0);
+  private static final int TIME_1000AM = TimeRange.getTimeInMinutes(10, 0);
+
+  private static final int DURATION_30_MINUTES = 30;
+
+  @Test
+  public void postingListsAreSortedByStart() {
+    TimeRange late = TimeRange.fromStartDuration(TIME_1000AM, DURATION_30_MINUTES);
+    TimeRange early = TimeRange.fromStartDuration(TIME_0800AM, DURATION_30_MINUTES);
+    EventIndex index = new EventIndex(Arrays.asList(
+        new Event("Event 1", late, Arrays.asList(PERSON_A)),
+        new Event("Event 2", early, Arrays.asList(PERSON_A, PERSON_B))));
+
+    Assert.assertEquals(Arrays.asList(early, late), index.getBusyRanges(PERSON_A));
+    Assert.assertEquals(Arrays.asList(early), index.getBusyRanges(PERSON_B));
+    Assert.assertTrue(index.getBusyRanges(PERSON_C).isEmpty());
+  }
+
+  @Test
+  public void indexesEventsReadFromJson() {
+    // Gson skips the constructor, so the attendees arrive unsorted and with duplicates.
+    Event event = Json.gson().fromJson("{\"title\":\"Event 1\",\"when\":"
+        + "{\"start\":540,\"duration\":30},\"attendees\":[\"Person B\",\"Person A\","
+        + "\"Person B\"]}", Event.class);
+    EventIndex index = new EventIndex(Arrays.asList(event));
+
+    TimeRange when = TimeRange.fromStartDuration(TIME_0900AM, DURATION_30_MINUTES);
+    Assert.assertEquals(Arrays.asList(when), index.getBusyRanges(PERSON_A));
+    Assert.assertEquals(Arrays.asList(when), index.getBusyRanges(PERSON_B));
+    Assert.assertEquals(new Event("Event 1", when, Arrays.asList(PERSON_A, PERSON_B)), event);
+  }
+
+  @Test
+  public void removeUpdatesEveryAttendee() {
+    Event event = new Event("Event 1",
+        TimeRange.fromStartDuration(TIME_0900AM, DURATION_30_MINUTES),
+        Arrays.asList(PERSON_A, PERSON_B));
+    EventIndex index = new EventIndex(Arrays.asList(event));
+
+    Assert.assertTrue(index.remove(event));
+    Assert.assertTrue(index.getBusyRanges(PERSON_A).isEmpty());
+    Assert.assertTrue(index.getBusyRanges(PERSON_B).isEmpty());
+    Assert.assertFalse(index.remove(event));
+  }
+
+  @Test
+  public void queryReadsIncrementalChanges() {
+    EventIndex index = new EventIndex();
+    Event event = new Event("Event 1",
+        TimeRange.fromStartDuration(TIME_0900AM, DURATION_30_MINUTES), Arrays.asList(PERSON_A));
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_30_MINUTES);
+    FindMeetingQuery query = new FindMeetingQuery();
+
+    index.add(event);
+    Collection<TimeRange> expected =
+        Arrays.asList(TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_0900AM, false),
+            TimeRange.fromStartEnd(TIME_0900AM + DURATION_30_MINUTES, TimeRange.END_OF_DAY, true));
+    Assert.assertEquals(expected, query.query(index, request));
+
+    index.remove(event);
+    Assert.assertEquals(Arrays.asList(TimeRange.WHOLE_DAY), query.query(index, request));
+  }
+}
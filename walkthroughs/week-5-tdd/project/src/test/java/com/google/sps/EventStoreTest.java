@@ -0,0 +1,85 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import com.google.gson.Gson;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class EventStoreTest {
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+
+  private static final int TIME_0900AM = TimeRange.getTimeInMinutes(9, 0);
+
+  private static final int DURATION_30_MINUTES = 30;
+
+  private static final Gson GSON = new Gson();
+
+  @Test
+  public void snapshotHoldsSerializedEvents() {
+    Event event = new Event("Event 1",
+        TimeRange.fromStartDuration(TIME_0900AM, DURATION_30_MINUTES), Arrays.asList(PERSON_A));
+    EventStore store = new EventStore(Arrays.asList(event));
+
+    String actual = new String(store.snapshot().getEventsJson(), StandardCharsets.UTF_8);
+
+    Assert.assertEquals(GSON.toJson(Arrays.asList(event)), actual);
+  }
+
+  @Test
+  public void equivalentRequestsShareAnAnswer() {
+    EventStore store = new EventStore(Collections.emptyList());
+    EventSnapshot snapshot = store.snapshot();
+
+    byte[] first = snapshot.queryJson(
+        new MeetingRequest(Arrays.asList(PERSON_A, PERSON_B), DURATION_30_MINUTES));
+    byte[] second = snapshot.queryJson(
+        new MeetingRequest(Arrays.asList(PERSON_B, PERSON_A), DURATION_30_MINUTES));
+
+    Assert.assertSame(first, second);
+    Assert.assertEquals(GSON.toJson(Arrays.asList(TimeRange.WHOLE_DAY)),
+        new String(first, StandardCharsets.UTF_8));
+  }
+
+  @Test
+  public void changesReplaceTheSnapshot() {
+    EventStore store = new EventStore(Collections.emptyList());
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_30_MINUTES);
+    EventSnapshot before = store.snapshot();
+    byte[] answerBefore = before.queryJson(request);
+
+    Event event = new Event("Event 1",
+        TimeRange.fromStartDuration(TIME_0900AM, DURATION_30_MINUTES), Arrays.asList(PERSON_A));
+    store.add(event);
+    EventSnapshot after = store.snapshot();
+
+    Assert.assertTrue(after.getVersion() > before.getVersion());
+    Assert.assertEquals(GSON.toJson(new FindMeetingQuery().query(Arrays.asList(event), request)),
+        new String(after.queryJson(request), StandardCharsets.UTF_8));
+    // The old snapshot is unchanged for anyone still reading it.
+    Assert.assertSame(answerBefore, before.queryJson(request));
+
+    store.remove(event);
+    Assert.assertTrue(store.snapshot().getEvents().isEmpty());
+  }
+}
@@ -19,6 +19,7 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
@@ -446,5 +447,103 @@ public final class FindMeetingQueryTest {
     Assert.assertEquals(expected, actual);
   }
 
+  @Test
+  public void rankedByOptionalAttendeesAvailable() {
+    // Required attendee A is free all day. Optional B and C each have one event.
+    //
+    // Optional:       |--B--|
+    //                       |----C----|
+    // Day     : |---------------------------|
+    // Options : |--2--|               |--2--|
+    //           |-------------1-------------|  (one of B and C is always free)
+
+    Collection<Event> events = Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartEnd(TIME_0800AM, TIME_0900AM, false),
+            Arrays.asList(PERSON_B)),
+        new Event("Event 2", TimeRange.fromStartEnd(TIME_0900AM, TIME_1100AM, false),
+            Arrays.asList(PERSON_C)));
+
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_30_MINUTES);
+    request.addOptionalAttendee(PERSON_B);
+    request.addOptionalAttendee(PERSON_C);
+
+    List<RankedTimeRange> actual = query.queryRanked(events, request);
+    List<RankedTimeRange> expected = Arrays.asList(
+        new RankedTimeRange(TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_0800AM, false), 2),
+        new RankedTimeRange(TimeRange.fromStartEnd(TIME_1100AM, TimeRange.END_OF_DAY, true), 2),
+        new RankedTimeRange(TimeRange.WHOLE_DAY, 1));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void rankedRespectsRequiredAttendees() {
+    // Optional attendee B is double-booked, but should only be counted once.
+    //
+    // Events  : |--A--|
+    // Optional:             |--B--|
+    //                          |--B--|
+    // Day     : |------------------------|
+    // Options :       |--1--|        |-1-|
+    //                 |--------0---------|
+
+    Collection<Event> events = Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_0800AM, false),
+            Arrays.asList(PERSON_A)),
+        new Event("Event 2", TimeRange.fromStartEnd(TIME_0900AM, TIME_1000AM, false),
+            Arrays.asList(PERSON_B)),
+        new Event("Event 3", TimeRange.fromStartEnd(TIME_0930AM, TIME_1100AM, false),
+            Arrays.asList(PERSON_B)));
+
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_30_MINUTES);
+    request.addOptionalAttendee(PERSON_B);
+
+    List<RankedTimeRange> actual = query.queryRanked(events, request);
+    List<RankedTimeRange> expected = Arrays.asList(
+        new RankedTimeRange(TimeRange.fromStartEnd(TIME_0800AM, TIME_0900AM, false), 1),
+        new RankedTimeRange(TimeRange.fromStartEnd(TIME_1100AM, TimeRange.END_OF_DAY, true), 1),
+        new RankedTimeRange(TimeRange.fromStartEnd(TIME_0800AM, TimeRange.END_OF_DAY, true), 0));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void queryAllAnswersInRequestOrder() {
+    Collection<Event> events = Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartDuration(TIME_0830AM, DURATION_30_MINUTES),
+            Arrays.asList(PERSON_A)),
+        new Event("Event 2", TimeRange.fromStartDuration(TIME_1000AM, DURATION_1_HOUR),
+            Arrays.asList(PERSON_B)));
+
+    List<MeetingRequest> requests = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      String person = (i % 2 == 0) ? PERSON_A : PERSON_B;
+      requests.add(new MeetingRequest(Arrays.asList(person), DURATION_30_MINUTES + i));
+    }
+
+    List<Collection<TimeRange>> actual = query.queryAll(events, requests);
+
+    Assert.assertEquals(requests.size(), actual.size());
+    for (int i = 0; i < requests.size(); i++) {
+      Assert.assertEquals(query.query(events, requests.get(i)), actual.get(i));
+    }
+  }
+
+  @Test
+  public void queryEachAnswersInRequestOrder() {
+    Collection<Event> events = Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartDuration(TIME_0830AM, DURATION_30_MINUTES),
+            Arrays.asList(PERSON_A)));
+    EventIndex index = new EventIndex(events);
+    List<MeetingRequest> requests = Arrays.asList(
+        new MeetingRequest(Arrays.asList(PERSON_A), DURATION_30_MINUTES),
+        new MeetingRequest(Arrays.asList(PERSON_B), DURATION_30_MINUTES));
+
+    List<CompletableFuture<Collection<TimeRange>>> actual = query.queryEach(index, requests);
+
+    Assert.assertEquals(2, actual.size());
+    Assert.assertEquals(query.query(index, requests.get(0)), actual.get(0).join());
+    Assert.assertEquals(Arrays.asList(TimeRange.WHOLE_DAY), actual.get(1).join());
+  }
 }
 
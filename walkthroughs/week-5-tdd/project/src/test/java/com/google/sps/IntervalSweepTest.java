@@ -0,0 +1,92 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Arrays;
+import java.util.Collection;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class IntervalSweepTest {
+  private static final int TIME_0800AM = TimeRange.getTimeInMinutes(8, 0);
+  private static final int TIME_0900AM = TimeRange.getTimeInMinutes(9, 0);
+  private static final int TIME_1000AM = TimeRange.getTimeInMinutes(10, 0);
+  private static final int TIME_1100AM = TimeRange.getTimeInMinutes(11, 0);
+
+  private static final int DURATION_30_MINUTES = 30;
+
+  @Test
+  public void emptySweepIsWholeDay() {
+    IntervalSweep sweep = new IntervalSweep();
+
+    Assert.assertEquals(Arrays.asList(TimeRange.WHOLE_DAY), sweep.freeForRequired(0).asList());
+    Assert.assertEquals(Arrays.asList(TimeRange.WHOLE_DAY), sweep.freeForEveryone(0).asList());
+  }
+
+  @Test
+  public void requiredAndOptionalFromOneSweep() {
+    // Required:       |--R--|
+    // Optional:                   |--O--|
+    // Required only:  free everywhere except R.
+    // Everyone:       free everywhere except R and O.
+    IntervalSweep sweep = new IntervalSweep();
+    sweep.add(TimeRange.fromStartEnd(TIME_0800AM, TIME_0900AM, false), true);
+    sweep.add(TimeRange.fromStartEnd(TIME_1000AM, TIME_1100AM, false), false);
+
+    Collection<TimeRange> expectedRequired =
+        Arrays.asList(TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_0800AM, false),
+            TimeRange.fromStartEnd(TIME_0900AM, TimeRange.END_OF_DAY, true));
+    Collection<TimeRange> expectedEveryone =
+        Arrays.asList(TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_0800AM, false),
+            TimeRange.fromStartEnd(TIME_0900AM, TIME_1000AM, false),
+            TimeRange.fromStartEnd(TIME_1100AM, TimeRange.END_OF_DAY, true));
+
+    Assert.assertEquals(expectedRequired, sweep.freeForRequired(DURATION_30_MINUTES).asList());
+    Assert.assertEquals(expectedEveryone, sweep.freeForEveryone(DURATION_30_MINUTES).asList());
+  }
+
+  @Test
+  public void backToBackRangesLeaveNoGap() {
+    IntervalSweep sweep = new IntervalSweep();
+    sweep.add(TimeRange.fromStartEnd(TIME_0800AM, TIME_0900AM, false), true);
+    sweep.add(TimeRange.fromStartEnd(TIME_0900AM, TIME_1000AM, false), true);
+
+    Collection<TimeRange> expected =
+        Arrays.asList(TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_0800AM, false),
+            TimeRange.fromStartEnd(TIME_1000AM, TimeRange.END_OF_DAY, true));
+
+    Assert.assertEquals(expected, sweep.freeForRequired(0).asList());
+  }
+
+  @Test
+  public void manyOverlappingRanges() {
+    // Lots of ranges nested inside each other should still collapse into one busy block.
+    IntervalSweep sweep = new IntervalSweep();
+    for (int i = 0; i < 1000; i++) {
+      sweep.add(TIME_0800AM + (i % 60), TIME_1000AM - (i % 60), i % 2 == 0);
+    }
+
+    Collection<TimeRange> expected =
+        Arrays.asList(TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_0800AM, false),
+            TimeRange.fromStartEnd(TIME_1000AM, TimeRange.END_OF_DAY, true));
+
+    Assert.assertEquals(expected, sweep.freeForEveryone(DURATION_30_MINUTES).asList());
+    Assert.assertEquals(expected, sweep.freeForRequired(DURATION_30_MINUTES).asList());
+  }
+}
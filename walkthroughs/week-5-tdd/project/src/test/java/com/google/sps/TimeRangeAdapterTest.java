@@ -0,0 +1,74 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import com.google.gson.Gson;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class TimeRangeAdapterTest {
+  private static final int TIME_0900AM = TimeRange.getTimeInMinutes(9, 0);
+  private static final int TIME_1000AM = TimeRange.getTimeInMinutes(10, 0);
+
+  private static final int DURATION_30_MINUTES = 30;
+
+  // Gson without the adapter, to check that the JSON keeps the same shape.
+  private static final Gson REFLECTIVE_GSON = new Gson();
+
+  @Test
+  public void writesSameJsonAsReflection() {
+    List<TimeRange> ranges = Arrays.asList(
+        TimeRange.fromStartDuration(TIME_0900AM, DURATION_30_MINUTES),
+        TimeRange.fromStartEnd(TIME_1000AM, TimeRange.END_OF_DAY, true));
+
+    Assert.assertEquals(REFLECTIVE_GSON.toJson(ranges), Json.gson().toJson(ranges));
+  }
+
+  @Test
+  public void writesTimeRangeListSameAsList() {
+    TimeRangeList list = new TimeRangeList();
+    list.add(TIME_0900AM, TIME_1000AM);
+
+    String expected = REFLECTIVE_GSON.toJson(
+        Arrays.asList(TimeRange.fromStartEnd(TIME_0900AM, TIME_1000AM, false)));
+
+    Assert.assertEquals(expected, Json.gson().toJson(list.asList()));
+  }
+
+  @Test
+  public void readsWhatItWrites() {
+    TimeRange range = TimeRange.fromStartDuration(TIME_0900AM, DURATION_30_MINUTES);
+
+    TimeRange actual = Json.gson().fromJson(Json.gson().toJson(range), TimeRange.class);
+
+    Assert.assertEquals(range, actual);
+  }
+
+  @Test
+  public void readsNullAndIgnoresUnknownFields() {
+    Assert.assertNull(Json.gson().fromJson("null", TimeRange.class));
+
+    TimeRange actual =
+        Json.gson().fromJson("{\"end\":1,\"start\":540,\"duration\":30}", TimeRange.class);
+
+    Assert.assertEquals(TimeRange.fromStartDuration(TIME_0900AM, DURATION_30_MINUTES), actual);
+  }
+}
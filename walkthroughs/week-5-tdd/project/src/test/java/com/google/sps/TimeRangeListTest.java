@@ -0,0 +1,103 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import com.google.gson.Gson;
+import java.util.Arrays;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class TimeRangeListTest {
+  @Test
+  public void packRoundTrips() {
+    long packed = TimeRangeList.pack(100, 150);
+
+    Assert.assertEquals(100, TimeRangeList.start(packed));
+    Assert.assertEquals(150, TimeRangeList.end(packed));
+    Assert.assertTrue(TimeRangeList.pack(100, 150) < TimeRangeList.pack(100, 151));
+    Assert.assertTrue(TimeRangeList.pack(100, 999) < TimeRangeList.pack(101, 102));
+  }
+
+  @Test
+  public void mergeCombinesOverlappingAndTouchingRanges() {
+    // |---|
+    //   |---|
+    //       |--|    |--|
+    TimeRangeList list = new TimeRangeList();
+    list.add(300, 320);
+    list.add(130, 160);
+    list.add(100, 140);
+    list.add(160, 180);
+    list.add(200, 200);
+
+    list.merge();
+
+    Assert.assertEquals(Arrays.asList(TimeRange.fromStartEnd(100, 180, false),
+        TimeRange.fromStartEnd(300, 320, false)), list.asList());
+  }
+
+  @Test
+  public void complementFillsTheGaps() {
+    TimeRangeList list = new TimeRangeList();
+    list.add(100, 200);
+    list.add(300, 400);
+
+    TimeRangeList complement = list.complement(0, 350);
+
+    Assert.assertEquals(Arrays.asList(TimeRange.fromStartEnd(0, 100, false),
+        TimeRange.fromStartEnd(200, 300, false)), complement.asList());
+  }
+
+  @Test
+  public void intersectKeepsSharedTime() {
+    // a : |-----|   |---------|
+    // b :    |--------|  |--|
+    TimeRangeList a = new TimeRangeList();
+    a.add(0, 100);
+    a.add(150, 300);
+    TimeRangeList b = new TimeRangeList();
+    b.add(50, 200);
+    b.add(250, 270);
+
+    Assert.assertEquals(Arrays.asList(TimeRange.fromStartEnd(50, 100, false),
+        TimeRange.fromStartEnd(150, 200, false), TimeRange.fromStartEnd(250, 270, false)),
+        a.intersect(b).asList());
+  }
+
+  @Test
+  public void retainAtLeastDropsShortRanges() {
+    TimeRangeList list = new TimeRangeList();
+    list.add(0, 10);
+    list.add(20, 50);
+
+    list.retainAtLeast(30);
+
+    Assert.assertEquals(Arrays.asList(TimeRange.fromStartEnd(20, 50, false)), list.asList());
+  }
+
+  @Test
+  public void viewSerializesLikeTimeRanges() {
+    TimeRangeList list = new TimeRangeList();
+    list.add(100, 150);
+    Gson gson = new Gson();
+
+    Assert.assertEquals(gson.toJson(Arrays.asList(TimeRange.fromStartDuration(100, 50))),
+        gson.toJson(list.asList()));
+  }
+}